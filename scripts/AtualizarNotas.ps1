@@ -5,7 +5,7 @@
     Este script lê a configuração de turmas e disciplinas, apresenta menus interativos para o usuário selecionar o contexto,
     e então pede para que o usuário cole um bloco de texto (copiado de uma plataforma externa).
     O script utiliza Regex para extrair RA, Nome, N1, N2 e N3 de cada aluno.
-    Ele sempre substitui o arquivo de notas antigo, criando um backup com data e hora antes.
+    Ele sempre substitui o arquivo de notas antigo, registrando antes a versão atual no repositório de backups (BackupNotas.ps1).
     Opcionalmente, replica as notas inseridas para os outros trimestres, seguindo a mesma lógica de backup e substituição.
 .EXAMPLE
     PS > ./AtualizarNotas.ps1
@@ -20,6 +20,8 @@ $DiretorioData = Join-Path -Path $PSScriptRoot -ChildPath "data"
 $CaminhoArquivoTurmas = Join-Path -Path $DiretorioData -ChildPath "turmas-com-disciplinas.json"
 $DiretorioSaidaJson = Join-Path -Path $DiretorioData -ChildPath "notas_json"
 
+# Funções de backup (repositório de versões da aplicação Java)
+. (Join-Path -Path $PSScriptRoot -ChildPath "BackupNotas.ps1")
 
 # Garante que o diretório de saída exista
 if (-not (Test-Path $DiretorioSaidaJson)) {
@@ -145,23 +147,11 @@ $notasParaSalvar = $novasNotas.Values | Sort-Object -Property nome
 $sucessoSalvar = $false
 
 # --- Lógica de Backup ---
-$DiretorioBackup = Join-Path -Path $DiretorioSaidaJson -ChildPath "backup"
-if (-not (Test-Path $DiretorioBackup)) {
-    New-Item -Path $DiretorioBackup -ItemType Directory | Out-Null
-}
-
-if (Test-Path $CaminhoCompleto) {
-    $timestamp = Get-Date -Format "yyyyMMdd-HHmmss"
-    $NomeArquivoBackup = $NomeArquivoJson.Replace(".json", "_backup_$timestamp.json")
-    $CaminhoBackup = Join-Path -Path $DiretorioBackup -ChildPath $NomeArquivoBackup
-
-    try {
-        Move-Item -Path $CaminhoCompleto -Destination $CaminhoBackup
-        Write-Host "Backup do arquivo anterior salvo em: $CaminhoBackup" -ForegroundColor Cyan
-    } catch {
-        Write-Host "ERRO: Falha ao criar backup do arquivo anterior. A operação foi cancelada. Detalhes: $_" -ForegroundColor Red
-        exit
-    }
+# Registra a versão atual do arquivo e também as dos outros trimestres, que podem ser sobrescritas pela replicação.
+$ArquivosDaDisciplina = @('1', '2', '3') | ForEach-Object { Join-Path -Path $DiretorioSaidaJson -ChildPath "notas_${CodigoTurma}_${CodigoDisciplina}_T$_.json" }
+if (-not (Backup-ArquivosDeDados -DiretorioData $DiretorioData -Arquivos $ArquivosDaDisciplina -Rotulo "AtualizarNotas $NomeArquivoJson")) {
+    Write-Host "ERRO: A operação foi cancelada para não sobrescrever o arquivo sem backup." -ForegroundColor Red
+    exit
 }
 
 # --- Salva o novo arquivo ---
@@ -211,13 +201,7 @@ if ($sucessoSalvar) {
                 }
             }
 
-            # --- Lógica de Backup para replicação ---
-            if (Test-Path $CaminhoAlvo) {
-                $timestamp = Get-Date -Format "yyyyMMdd-HHmmss"
-                $NomeBackupAlvo = $NomeArquivoAlvo.Replace(".json", "_backup_$timestamp.json")
-                $CaminhoBackupAlvo = Join-Path -Path $DiretorioBackup -ChildPath $NomeBackupAlvo
-                Move-Item -Path $CaminhoAlvo -Destination $CaminhoBackupAlvo -ErrorAction SilentlyContinue
-            }
+            # O backup deste arquivo já foi feito antes da gravação do trimestre selecionado.
 
             try {
                 $notasAlvoAtualizadas | Sort-Object -Property nome | ConvertTo-Json -Depth 5 | Set-Content -Path $CaminhoAlvo -Encoding UTF8
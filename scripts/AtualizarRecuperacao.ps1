@@ -7,6 +7,7 @@
     O script extrai o RA e a primeira nota de cada aluno, encontra o arquivo JSON correspondente,
     e atualiza o campo "recuperacao" para cada aluno encontrado.
     Este script NÃO cria novos arquivos nem adiciona novos alunos; ele apenas atualiza registros existentes.
+    A versão atual do arquivo é registrada no repositório de backups (BackupNotas.ps1) antes da gravação.
 .EXAMPLE
     PS > ./AtualizarRecuperacao.ps1
     
@@ -20,6 +21,9 @@ $DiretorioData = Join-Path -Path $PSScriptRoot -ChildPath "data"
 $CaminhoArquivoTurmas = Join-Path -Path $DiretorioData -ChildPath "turmas-com-disciplinas.json"
 $DiretorioSaidaJson = Join-Path -Path $DiretorioData -ChildPath "notas_json"
 
+# Funções de backup (repositório de versões da aplicação Java)
+. (Join-Path -Path $PSScriptRoot -ChildPath "BackupNotas.ps1")
+
 # --- CARREGAR DADOS PARA OS MENUS ---
 if (-not (Test-Path $CaminhoArquivoTurmas)) {
     Write-Host "ERRO: Arquivo de configuração de turmas não encontrado em '$CaminhoArquivoTurmas'." -ForegroundColor Red
@@ -132,6 +136,11 @@ foreach ($aluno in $notasDoArquivo) {
     }
 }
 
+if ($alunosAtualizados -gt 0 -and -not (Backup-ArquivosDeDados -DiretorioData $DiretorioData -Arquivos @($CaminhoCompleto) -Rotulo "AtualizarRecuperacao $NomeArquivoJson")) {
+    Write-Host "ERRO: A operação foi cancelada para não sobrescrever o arquivo sem backup." -ForegroundColor Red
+    exit
+}
+
 # Salva o arquivo JSON com os dados atualizados
 try {
     # A lista já está ordenada, então não precisamos reordenar
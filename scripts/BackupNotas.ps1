@@ -0,0 +1,59 @@
+<#
+.SYNOPSIS
+    Funções de backup compartilhadas pelos scripts de atualização de dados.
+.DESCRIPTION
+    Os scripts não fazem mais cópias com data e hora de cada arquivo. Antes de sobrescrever um arquivo, eles
+    registram a versão atual no repositório de backups da aplicação Java (tools.BackupNotas), que guarda cada
+    conteúdo uma única vez, comprimido, em 'data/.backup'. Arquivos que não mudaram desde o último backup não
+    ocupam espaço novo.
+
+    Para restaurar uma versão anterior:
+        java -cp <classpath> tools.BackupNotas --data <pasta data> historico notas_json/notas_297135_MAT_T1.json
+        java -cp <classpath> tools.BackupNotas --data <pasta data> restaurar notas_json/notas_297135_MAT_T1.json --em "10/05/2024 14:30"
+
+    O classpath padrão é a saída de compilação do IntelliJ (out/production/notas_java) mais as bibliotecas de 'libs'.
+    Para usar outro, defina a variável de ambiente NOTAS_CLASSPATH.
+.EXAMPLE
+    . (Join-Path -Path $PSScriptRoot -ChildPath "BackupNotas.ps1")
+    if (-not (Backup-ArquivosDeDados -DiretorioData $DiretorioData -Arquivos @($CaminhoCompleto) -Rotulo "AtualizarNotas")) { exit }
+#>
+
+function Get-ClasspathNotas {
+    if ($env:NOTAS_CLASSPATH) {
+        return $env:NOTAS_CLASSPATH
+    }
+    $separador = [System.IO.Path]::PathSeparator
+    $saidaCompilacao = Join-Path -Path $PSScriptRoot -ChildPath "out/production/notas_java"
+    $bibliotecas = Join-Path -Path $PSScriptRoot -ChildPath "libs/*"
+    return "$saidaCompilacao$separador$bibliotecas"
+}
+
+# Registra a versão atual dos arquivos no repositório de backups.
+# Retorna $true se o backup foi feito (ou se nenhum dos arquivos existe ainda) e $false em caso de erro.
+function Backup-ArquivosDeDados {
+    param(
+        [Parameter(Mandatory = $true)] [string] $DiretorioData,
+        [Parameter(Mandatory = $true)] [string[]] $Arquivos,
+        [string] $Rotulo = "script"
+    )
+
+    $existentes = @($Arquivos | Where-Object { Test-Path $_ })
+    if ($existentes.Count -eq 0) {
+        return $true
+    }
+
+    try {
+        $saida = & java -cp (Get-ClasspathNotas) tools.BackupNotas --data $DiretorioData snapshot --rotulo $Rotulo @existentes 2>&1
+        $codigoSaida = $LASTEXITCODE
+    } catch {
+        # Ex: 'java' não encontrado no PATH
+        $saida = $_
+        $codigoSaida = 1
+    }
+    if ($codigoSaida -ne 0) {
+        Write-Host "ERRO: Falha ao criar o backup dos arquivos. Detalhes: $saida" -ForegroundColor Red
+        return $false
+    }
+    Write-Host "Backup: $saida" -ForegroundColor Cyan
+    return $true
+}
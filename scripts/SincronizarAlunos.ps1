@@ -7,7 +7,7 @@
 
     O script então sincroniza todos os outros arquivos de notas da turma e também a lista principal de alunos
     (ex: 297135.json), removendo quaisquer "alunos fantasmas" que não estejam na lista mestra.
-    Um backup de cada arquivo modificado é criado antes de qualquer alteração.
+    A versão atual de cada arquivo modificado é registrada no repositório de backups (BackupNotas.ps1) antes de qualquer alteração.
 .EXAMPLE
     PS > ./SincronizarAlunos.ps1
 
@@ -20,12 +20,9 @@
 $DiretorioData = Join-Path -Path $PSScriptRoot -ChildPath "data"
 $CaminhoArquivoTurmas = Join-Path -Path $DiretorioData -ChildPath "turmas-com-disciplinas.json"
 $DiretorioNotas = Join-Path -Path $DiretorioData -ChildPath "notas_json"
-$DiretorioBackup = Join-Path -Path $DiretorioData -ChildPath "backup" # Movido para a pasta 'data'
 
-# Garante que o diretório de backup exista
-if (-not (Test-Path $DiretorioBackup)) {
-    New-Item -Path $DiretorioBackup -ItemType Directory | Out-Null
-}
+# Funções de backup (repositório de versões da aplicação Java)
+. (Join-Path -Path $PSScriptRoot -ChildPath "BackupNotas.ps1")
 
 # --- CARREGAR DADOS PARA O MENU ---
 if (-not (Test-Path $CaminhoArquivoTurmas)) {
@@ -85,12 +82,11 @@ Write-Host "Lista mestra com $($rasOficiais.Count) alunos carregada."
 $caminhoListaPrincipal = Join-Path -Path $DiretorioData -ChildPath "$($CodigoTurma).json"
 $listaPrincipalNova = $listaMestra | ForEach-Object { [PSCustomObject]@{ nome = $_.nome; ra = $_.ra } } | Sort-Object -Property nome
 
-if (Test-Path $caminhoListaPrincipal) {
-    $timestamp = Get-Date -Format "yyyyMMdd-HHmmss"
-    $nomeBackup = "${CodigoTurma}_sync-backup_$timestamp.json"
-    $caminhoBackup = Join-Path -Path $DiretorioBackup -ChildPath $nomeBackup
-    Move-Item -Path $caminhoListaPrincipal -Destination $caminhoBackup -ErrorAction SilentlyContinue
-    Write-Host "`nBackup da lista de alunos principal salvo em: $caminhoBackup" -ForegroundColor Cyan
+# Um único snapshot com a lista principal e todos os arquivos de notas da turma, antes de qualquer alteração.
+$arquivosDaTurma = @($caminhoListaPrincipal) + @($arquivosDeNotas | ForEach-Object { $_.FullName })
+if (-not (Backup-ArquivosDeDados -DiretorioData $DiretorioData -Arquivos $arquivosDaTurma -Rotulo "SincronizarAlunos $CodigoTurma")) {
+    Write-Host "ERRO: A sincronização foi cancelada para não sobrescrever os arquivos sem backup." -ForegroundColor Red
+    exit
 }
 
 $listaPrincipalNova | ConvertTo-Json -Depth 5 | Set-Content -Path $caminhoListaPrincipal -Encoding UTF8
@@ -118,20 +114,8 @@ foreach ($arquivo in $arquivosDeNotas) {
         Write-Host "  -> ATENÇÃO: $alunosRemovidos aluno(s) fantasma(s) serão removidos." -ForegroundColor Yellow
     }
 
-    # --- Lógica de Backup ---
-    $timestamp = Get-Date -Format "yyyyMMdd-HHmmss"
-    $nomeBackup = $arquivo.Name.Replace(".json", "_sync-backup_$timestamp.json")
-    $caminhoBackup = Join-Path -Path ($DiretorioNotas + "/backup") -ChildPath $nomeBackup
-
+    # O backup deste arquivo já foi feito no início da sincronização.
     try {
-        # Cria o diretório de backup de notas se não existir
-        if (-not (Test-Path ($DiretorioNotas + "/backup"))) {
-            New-Item -Path ($DiretorioNotas + "/backup") -ItemType Directory | Out-Null
-        }
-
-        Move-Item -Path $arquivo.FullName -Destination $caminhoBackup
-        Write-Host "  -> Backup do arquivo de notas salvo em: $caminhoBackup"
-
         # Salva o novo arquivo sincronizado e ordenado
         $notasSincronizadas | Sort-Object -Property nome | ConvertTo-Json -Depth 5 | Set-Content -Path $arquivo.FullName -Encoding UTF8
         Write-Host "  -> SUCESSO: Arquivo sincronizado salvo com $contagemSincronizada alunos." -ForegroundColor Green
@@ -1,7 +1,9 @@
 package app;
 
 import gui.AppGUI;
+import tools.BackupNotas;
 import tools.FerramentaImportacao;
+import tools.ReconstruirResumoBD;
 import tools.SincronizadorBD;
 import tools.RestauradorBD;
 
@@ -19,6 +21,8 @@ public class Main {
             System.out.println("  [2] Executar Ferramenta de Importação de Arquivos");
             System.out.println("  [3] Sincronizar Dados com o Banco de Dados (Arquivo Histórico)");
             System.out.println("  [4] Restaurar Dados do Banco de Dados");
+            System.out.println("  [5] Backup dos Arquivos de Dados (snapshots e restauração)");
+            System.out.println("  [6] Reconstruir o Resumo do Dashboard no Banco de Dados");
             System.out.println("  [0] Sair");
 
             System.out.print("\nDigite sua escolha: ");
@@ -39,7 +43,14 @@ public class Main {
                     break;
                 case "4":
                     System.out.println("\nIniciando a Ferramenta de Restauração...");
-                    RestauradorBD.main(args);
+                    RestauradorBD.restaurar(args);
+                    break;
+                case "5":
+                    BackupNotas.menu(scanner, "D:/Local/Dev/Java/notas_java/data");
+                    break;
+                case "6":
+                    System.out.println("\nIniciando a reconstrução do resumo...");
+                    ReconstruirResumoBD.main(args);
                     break;
                 case "0":
                     sair = true;
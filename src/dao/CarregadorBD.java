@@ -0,0 +1,98 @@
+package dao;
+
+import model.Aluno;
+import model.Disciplina;
+import model.NotaSlot;
+import model.Turma;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Lê o banco (turmas, disciplinas, alunos e notas) e monta o grafo de objetos do modelo.
+ * {@link #percorrerPorTurma(int, Consumer)} entrega uma turma por vez a partir de uma única consulta ordenada,
+ * sem manter o banco inteiro em memória (usado pelo RestauradorBD).
+ */
+public class CarregadorBD {
+
+    private final Connection conn;
+
+    public CarregadorBD(Connection conn) {
+        this.conn = conn;
+    }
+
+    /**
+     * Percorre o banco turma a turma: uma única consulta ordenada por turma, aluno e nota, lida em lotes de
+     * {@code tamanhoDoLote} linhas. Cada turma é montada (disciplinas, alunos e notas) e entregue ao consumidor
+     * assim que a consulta passa para a próxima; depois disso não é mais referenciada aqui, então a memória
+     * usada depende do tamanho de uma turma, não do banco.
+     * @return Quantas turmas foram entregues.
+     */
+    public int percorrerPorTurma(int tamanhoDoLote, Consumer<Turma> consumidor) throws SQLException {
+        // Disciplinas são poucas: carregadas antes, para que a consulta principal traga só alunos e notas.
+        Map<Integer, List<Disciplina>> disciplinasPorTurma = new HashMap<>();
+        Map<Integer, String> nomesDasDisciplinas = new HashMap<>();
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT id, turma_id, codigo, nome, tipo FROM disciplina ORDER BY turma_id, id")) {
+            while (rs.next()) {
+                Disciplina disciplina = new Disciplina(rs.getString("codigo"), rs.getString("nome"), rs.getString("tipo"));
+                disciplinasPorTurma.computeIfAbsent(rs.getInt("turma_id"), id -> new ArrayList<>()).add(disciplina);
+                nomesDasDisciplinas.put(rs.getInt("id"), disciplina.getNomeDisciplina());
+            }
+        }
+
+        String sql = "SELECT t.id AS turma_id, t.codigo, t.nome AS turma_nome, a.id AS aluno_id, a.nome AS aluno_nome, a.ra," +
+                " n.disciplina_id, n.slot, n.valor" +
+                " FROM turma t LEFT JOIN aluno a ON a.turma_id = t.id LEFT JOIN nota n ON n.aluno_id = a.id" +
+                " ORDER BY t.id, a.id, n.id";
+        int entregues = 0;
+        try (Statement stmt = conn.createStatement()) {
+            stmt.setFetchSize(tamanhoDoLote);
+            try (ResultSet rs = stmt.executeQuery(sql)) {
+                Turma turma = null;
+                Aluno aluno = null;
+                while (rs.next()) {
+                    int turmaId = rs.getInt("turma_id");
+                    if (turma == null || turma.getId() != turmaId) { // Linhas vêm agrupadas por turma
+                        if (turma != null) {
+                            consumidor.accept(turma);
+                            entregues++;
+                        }
+                        turma = new Turma(rs.getString("codigo"), rs.getString("turma_nome"));
+                        turma.setId(turmaId);
+                        for (Disciplina disciplina : disciplinasPorTurma.getOrDefault(turmaId, List.of())) {
+                            turma.adicionarDisciplina(disciplina);
+                        }
+                        aluno = null;
+                    }
+                    int alunoId = rs.getInt("aluno_id");
+                    if (rs.wasNull()) {
+                        continue; // Turma sem alunos
+                    }
+                    if (aluno == null || aluno.getId() != alunoId) {
+                        aluno = new Aluno(rs.getString("aluno_nome"), rs.getString("ra"));
+                        aluno.setId(alunoId);
+                        turma.adicionarAluno(aluno);
+                    }
+                    NotaSlot slot = NotaSlot.porCodigo(rs.getInt("slot"));
+                    String disciplina = nomesDasDisciplinas.get(rs.getInt("disciplina_id"));
+                    if (slot != null && disciplina != null) {
+                        aluno.adicionarOuAtualizarNota(disciplina, slot, rs.getDouble("valor"));
+                    }
+                }
+                if (turma != null) {
+                    consumidor.accept(turma);
+                    entregues++;
+                }
+            }
+        }
+        return entregues;
+    }
+}
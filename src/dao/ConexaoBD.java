@@ -1,56 +1,65 @@
 package dao;
 
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
-import java.sql.Statement;
 
 public class ConexaoBD {
 
-    private static final String URL = "jdbc:h2:D:/Local/Dev/Java/notas_java/data/notas_backup";
+    // AUTO_SERVER: o primeiro processo a abrir o banco atende os demais por TCP, em vez de travar o arquivo.
+    // Assim a GUI pode manter o pool aberto enquanto o SincronizadorBD e as outras ferramentas rodam pelo menu.
+    private static final String URL = "jdbc:h2:D:/Local/Dev/Java/notas_java/data/notas_backup;AUTO_SERVER=TRUE";
     private static final String USER = "sa";
     private static final String PASSWORD = "";
 
+    // Compartilhado pelos DAOs, pelo DashboardService e pelas ferramentas de sincronização.
+    private static final PoolDeConexoes POOL = new PoolDeConexoes(URL, USER, PASSWORD);
+    private static volatile boolean esquemaAtualizado;
+
+    static {
+        // Fecha as conexões ociosas ao sair, para o H2 gravar e liberar o arquivo do banco.
+        Runtime.getRuntime().addShutdownHook(new Thread(POOL::fecharOciosas, "fechar-conexoes-bd"));
+    }
+
+    /**
+     * Obtém uma conexão do pool. {@code close()} devolve a conexão ao pool em vez de fechá-la.
+     */
     public static Connection conectar() throws SQLException {
-        return DriverManager.getConnection(URL, USER, PASSWORD);
+        Connection conn = POOL.obter();
+        if (!esquemaAtualizado) {
+            try {
+                atualizarEsquema(conn);
+            } catch (SQLException e) {
+                conn.close();
+                throw e;
+            }
+        }
+        return conn;
     }
 
+    /**
+     * Fecha as conexões mantidas abertas pelo pool (ex: ao encerrar a GUI). As próximas chamadas a
+     * {@link #conectar()} abrem novas.
+     */
+    public static void fecharConexoes() {
+        POOL.fecharOciosas();
+    }
+
+    /**
+     * Cria as tabelas ou migra um banco existente para a versão atual do esquema (ver {@link MigracoesBD}).
+     * Também é feito automaticamente na primeira conexão de cada execução.
+     */
     public static void criarTabelasSeNaoExistirem() {
-        String sqlTurma = "CREATE TABLE IF NOT EXISTS turma (" +
-                " id INT AUTO_INCREMENT PRIMARY KEY," +
-                " codigo VARCHAR(255) NOT NULL UNIQUE," +
-                " nome VARCHAR(255) NOT NULL);";
-
-        String sqlDisciplina = "CREATE TABLE IF NOT EXISTS disciplina (" +
-                " id INT AUTO_INCREMENT PRIMARY KEY," +
-                " codigo VARCHAR(255) NOT NULL," +
-                " nome VARCHAR(255) NOT NULL," +
-                " turma_id INT," +
-                " FOREIGN KEY (turma_id) REFERENCES turma(id) ON DELETE CASCADE);";
-
-        String sqlAluno = "CREATE TABLE IF NOT EXISTS aluno (" +
-                " id INT AUTO_INCREMENT PRIMARY KEY," +
-                " nome VARCHAR(255) NOT NULL," +
-                " ra VARCHAR(255) NOT NULL," +
-                " turma_id INT," +
-                " FOREIGN KEY (turma_id) REFERENCES turma(id) ON DELETE CASCADE);";
-
-        String sqlNota = "CREATE TABLE IF NOT EXISTS nota (" +
-                " id INT AUTO_INCREMENT PRIMARY KEY," +
-                " disciplina VARCHAR(255) NOT NULL," +
-                " descricao VARCHAR(255) NOT NULL," +
-                " valor DOUBLE NOT NULL," +
-                " aluno_id INT," +
-                " FOREIGN KEY (aluno_id) REFERENCES aluno(id) ON DELETE CASCADE);";
-
-        try (Connection conn = conectar();
-             Statement stmt = conn.createStatement()) {
-            stmt.execute(sqlTurma);
-            stmt.execute(sqlDisciplina);
-            stmt.execute(sqlAluno);
-            stmt.execute(sqlNota);
+        try {
+            conectar().close(); // conectar() já aplica as migrações pendentes
         } catch (SQLException e) {
             System.out.println(e.getMessage());
         }
     }
+
+    private static synchronized void atualizarEsquema(Connection conn) throws SQLException {
+        if (!esquemaAtualizado) {
+            MigracoesBD.aplicar(conn);
+            esquemaAtualizado = true;
+        }
+    }
 }
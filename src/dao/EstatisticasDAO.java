@@ -0,0 +1,76 @@
+package dao;
+
+import model.Situacao;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Estatísticas do Dashboard calculadas no próprio banco.
+ * <p>
+ * As situações vêm da tabela {@code situacao_resumo}, mantida pelo {@link ResumoSituacaoDAO} a cada sincronização;
+ * só a contagem de situações por turma volta para a aplicação.
+ */
+public class EstatisticasDAO {
+
+    /**
+     * Números de uma turma. {@code situacoes} é indexado por {@link Situacao#ordinal()}.
+     */
+    public record EstatisticasTurma(int turmaId, String nomeTurma, int alunos, long notas, long[] situacoes) {}
+
+    private static final String SQL_TOTAIS = "SELECT t.id, t.nome," +
+            " (SELECT COUNT(*) FROM aluno a WHERE a.turma_id = t.id) AS alunos," +
+            " (SELECT COUNT(*) FROM nota n JOIN aluno a ON a.id = n.aluno_id WHERE a.turma_id = t.id) AS notas" +
+            " FROM turma t ORDER BY t.id";
+
+    // Lê o resumo materializado (ver ResumoSituacaoDAO); o filtro de disciplinas anuais é aplicado na leitura.
+    private static final String SQL_SITUACOES = "SELECT r.turma_id, r.situacao, SUM(r.quantidade) AS quantidade" +
+            " FROM situacao_resumo r JOIN disciplina d ON d.id = r.disciplina_id" +
+            " WHERE COALESCE(UPPER(d.tipo), 'ANUAL') <> 'ANUAL' OR ?" +
+            " GROUP BY r.turma_id, r.situacao";
+
+    private final Connection conn;
+
+    public EstatisticasDAO(Connection conn) {
+        this.conn = conn;
+    }
+
+    /**
+     * @param incluirDisciplinasAnuais Se as disciplinas ANUAL (ou sem tipo) entram na contagem de situações;
+     *                                 as demais sempre entram.
+     * @return Uma entrada por turma, na ordem de inserção.
+     */
+    public List<EstatisticasTurma> buscarPorTurma(boolean incluirDisciplinasAnuais) throws SQLException {
+        Map<Integer, long[]> situacoesPorTurma = contarSituacoes(incluirDisciplinasAnuais);
+
+        List<EstatisticasTurma> estatisticas = new ArrayList<>();
+        try (Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery(SQL_TOTAIS)) {
+            while (rs.next()) {
+                int turmaId = rs.getInt("id");
+                long[] situacoes = situacoesPorTurma.getOrDefault(turmaId, new long[Situacao.values().length]);
+                estatisticas.add(new EstatisticasTurma(turmaId, rs.getString("nome"), rs.getInt("alunos"), rs.getLong("notas"), situacoes));
+            }
+        }
+        return estatisticas;
+    }
+
+    private Map<Integer, long[]> contarSituacoes(boolean incluirDisciplinasAnuais) throws SQLException {
+        Map<Integer, long[]> situacoesPorTurma = new HashMap<>();
+        try (PreparedStatement pstmt = conn.prepareStatement(SQL_SITUACOES)) {
+            pstmt.setBoolean(1, incluirDisciplinasAnuais);
+            ResultSet rs = pstmt.executeQuery();
+            while (rs.next()) {
+                long[] situacoes = situacoesPorTurma.computeIfAbsent(rs.getInt("turma_id"), id -> new long[Situacao.values().length]);
+                situacoes[rs.getInt("situacao")] = rs.getLong("quantidade");
+            }
+        }
+        return situacoesPorTurma;
+    }
+}
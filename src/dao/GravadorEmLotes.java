@@ -0,0 +1,63 @@
+package dao;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+/**
+ * Envia um {@link PreparedStatement} ao banco em lotes de tamanho fixo, em vez de acumular todas as linhas
+ * num único {@code executeBatch}. A memória usada pelo driver fica limitada a um lote, qualquer que seja o
+ * total de linhas.
+ */
+final class GravadorEmLotes {
+
+    static final int TAMANHO_PADRAO = 1000;
+
+    private final PreparedStatement pstmt;
+    private final String tabela;
+    private final int tamanhoDoLote;
+    private final ProgressoDoLote progresso;
+    private int pendentes;
+    private long total;
+
+    GravadorEmLotes(PreparedStatement pstmt, String tabela, int tamanhoDoLote, ProgressoDoLote progresso) {
+        if (tamanhoDoLote < 1) {
+            throw new IllegalArgumentException("O tamanho do lote deve ser positivo: " + tamanhoDoLote);
+        }
+        this.pstmt = pstmt;
+        this.tabela = tabela;
+        this.tamanhoDoLote = tamanhoDoLote;
+        this.progresso = progresso;
+    }
+
+    /**
+     * Adiciona ao lote a linha cujos parâmetros já foram definidos no statement; grava o lote se ele encheu.
+     */
+    void adicionar() throws SQLException {
+        pstmt.addBatch();
+        pendentes++;
+        if (pendentes >= tamanhoDoLote) {
+            gravar();
+        }
+    }
+
+    /**
+     * Grava as linhas pendentes (o último lote, normalmente incompleto).
+     */
+    void gravar() throws SQLException {
+        if (pendentes == 0) {
+            return;
+        }
+        long inicio = System.nanoTime();
+        pstmt.executeBatch();
+        long nanos = Math.max(System.nanoTime() - inicio, 1);
+        int linhas = pendentes;
+        total += linhas;
+        pendentes = 0;
+        progresso.loteGravado(tabela, linhas, total, linhas * 1_000_000_000.0 / nanos);
+    }
+
+    /** Linhas já gravadas. */
+    long getTotal() {
+        return total;
+    }
+}
@@ -0,0 +1,255 @@
+package dao;
+
+import model.NotaSlot;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * Migrações versionadas do esquema do banco. A versão aplicada fica na tabela {@code schema_versao};
+ * ao abrir o banco, as migrações com versão maior são aplicadas em ordem.
+ * Um banco antigo (sem {@code schema_versao}) é tratado como versão 0 e migrado no próprio arquivo.
+ * <p>
+ * No H2 cada comando DDL ({@code ALTER TABLE}, {@code CREATE}, {@code DROP}) confirma a transação na hora:
+ * uma migração interrompida no meio não é desfeita, e a sua versão não chega a ser registrada. Por isso
+ * todo passo precisa ser idempotente ({@code IF NOT EXISTS}/{@code IF EXISTS}, conversões de dados só
+ * enquanto a coluna de origem existir): na próxima abertura a migração é executada de novo desde o início
+ * e termina o que faltou.
+ * <p>
+ * As migrações só usam SQL próprio, nunca os DAOs: um DAO acompanha o esquema atual e mudaria o que uma migração
+ * antiga faz. Quando uma migração altera o que o resumo de situações deve conter, ela é marcada com
+ * {@code reconstroiResumo} e o resumo é refeito uma única vez, pelo {@link ResumoSituacaoDAO} atual, depois que
+ * todas as migrações pendentes foram aplicadas.
+ * <p>
+ * Para mudar o esquema, acrescente uma migração no fim de {@link #MIGRACOES}; nunca altere uma já publicada.
+ */
+final class MigracoesBD {
+
+    @FunctionalInterface
+    private interface Passos {
+        void aplicar(Statement stmt) throws SQLException;
+    }
+
+    private record Migracao(int versao, String descricao, Passos passos, boolean reconstroiResumo) {}
+
+    private static final List<Migracao> MIGRACOES = List.of(
+            new Migracao(1, "Esquema original", MigracoesBD::criarEsquemaOriginal, false),
+            new Migracao(2, "Índices, tipo da disciplina e nota com disciplina_id e código do slot", MigracoesBD::migrarParaV2, false),
+            new Migracao(3, "Resumo materializado de situações por turma e disciplina", MigracoesBD::migrarParaV3, true),
+            new Migracao(4, "Versão do conteúdo do banco para validar caches", MigracoesBD::migrarParaV4, false),
+            new Migracao(5, "Regra de avaliação efetiva de cada disciplina", MigracoesBD::migrarParaV5, false)
+    );
+
+    private MigracoesBD() {
+    }
+
+    /**
+     * Aplica as migrações pendentes. Devolve a conexão no modo auto-commit.
+     */
+    static void aplicar(Connection conn) throws SQLException {
+        // Num banco novo as migrações só criam o esquema; não há o que anunciar.
+        boolean bancoExistente = existeTabela(conn, "TURMA");
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE IF NOT EXISTS schema_versao (" +
+                    " versao INT PRIMARY KEY," +
+                    " descricao VARCHAR(255) NOT NULL," +
+                    " aplicada_em TIMESTAMP DEFAULT CURRENT_TIMESTAMP)");
+        }
+        int versao = versaoAplicada(conn);
+        boolean reconstruirResumo = false;
+        for (Migracao migracao : MIGRACOES) {
+            if (migracao.versao() <= versao) {
+                continue;
+            }
+            conn.setAutoCommit(false);
+            try (Statement stmt = conn.createStatement()) {
+                migracao.passos().aplicar(stmt);
+                try (PreparedStatement registro = conn.prepareStatement("INSERT INTO schema_versao (versao, descricao) VALUES (?, ?)")) {
+                    registro.setInt(1, migracao.versao());
+                    registro.setString(2, migracao.descricao());
+                    registro.executeUpdate();
+                }
+                conn.commit();
+                reconstruirResumo |= migracao.reconstroiResumo();
+                if (bancoExistente && migracao.versao() > 1) {
+                    System.out.printf("Banco de dados migrado para a versão %d: %s.%n", migracao.versao(), migracao.descricao());
+                }
+            } catch (SQLException e) {
+                conn.rollback(); // Desfaz só os dados alterados desde o último DDL (ver comentário da classe)
+                throw new SQLException("Falha na migração do banco para a versão " + migracao.versao() + ": " + e.getMessage(), e);
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+        if (reconstruirResumo && bancoExistente) {
+            reconstruirResumo(conn);
+        }
+    }
+
+    /**
+     * Refaz o resumo de situações com o esquema já na versão atual. Se falhar, as migrações continuam aplicadas;
+     * o resumo pode ser refeito depois com a ferramenta ReconstruirResumoBD.
+     */
+    private static void reconstruirResumo(Connection conn) throws SQLException {
+        conn.setAutoCommit(false);
+        try {
+            int linhas = new ResumoSituacaoDAO(conn).reconstruir();
+            new VersaoDadosDAO(conn).incrementar();
+            conn.commit();
+            System.out.printf("Resumo de situações reconstruído: %d linha(s).%n", linhas);
+        } catch (SQLException e) {
+            conn.rollback();
+            throw new SQLException("Falha ao reconstruir o resumo de situações após a migração (execute o ReconstruirResumoBD): " + e.getMessage(), e);
+        } finally {
+            conn.setAutoCommit(true);
+        }
+    }
+
+    private static boolean existeTabela(Connection conn, String tabela) throws SQLException {
+        try (ResultSet rs = conn.getMetaData().getTables(null, null, tabela, new String[]{"TABLE"})) {
+            return rs.next();
+        }
+    }
+
+    private static boolean existeColuna(Connection conn, String tabela, String coluna) throws SQLException {
+        try (ResultSet rs = conn.getMetaData().getColumns(null, null, tabela, coluna)) {
+            return rs.next();
+        }
+    }
+
+    private static int versaoAplicada(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COALESCE(MAX(versao), 0) FROM schema_versao")) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
+    // --- Versão 1 ---
+
+    // Esquema original (IF NOT EXISTS: em bancos antigos as tabelas já existem e nada muda).
+    private static void criarEsquemaOriginal(Statement stmt) throws SQLException {
+        stmt.execute("CREATE TABLE IF NOT EXISTS turma (" +
+                " id INT AUTO_INCREMENT PRIMARY KEY," +
+                " codigo VARCHAR(255) NOT NULL UNIQUE," +
+                " nome VARCHAR(255) NOT NULL)");
+        stmt.execute("CREATE TABLE IF NOT EXISTS disciplina (" +
+                " id INT AUTO_INCREMENT PRIMARY KEY," +
+                " codigo VARCHAR(255) NOT NULL," +
+                " nome VARCHAR(255) NOT NULL," +
+                " turma_id INT," +
+                " FOREIGN KEY (turma_id) REFERENCES turma(id) ON DELETE CASCADE)");
+        stmt.execute("CREATE TABLE IF NOT EXISTS aluno (" +
+                " id INT AUTO_INCREMENT PRIMARY KEY," +
+                " nome VARCHAR(255) NOT NULL," +
+                " ra VARCHAR(255) NOT NULL," +
+                " turma_id INT," +
+                " FOREIGN KEY (turma_id) REFERENCES turma(id) ON DELETE CASCADE)");
+        stmt.execute("CREATE TABLE IF NOT EXISTS nota (" +
+                " id INT AUTO_INCREMENT PRIMARY KEY," +
+                " disciplina VARCHAR(255) NOT NULL," +
+                " descricao VARCHAR(255) NOT NULL," +
+                " valor DOUBLE NOT NULL," +
+                " aluno_id INT," +
+                " FOREIGN KEY (aluno_id) REFERENCES aluno(id) ON DELETE CASCADE)");
+    }
+
+    // --- Versão 2 ---
+
+    /**
+     * - disciplina.tipo (lido pela aplicação mas nunca criado);
+     * - nota passa a referenciar disciplina.id e a guardar o slot como SMALLINT (ver NotaSlot#getCodigo),
+     *   em vez de repetir nome da disciplina e descrição em texto em cada linha;
+     * - índices para as buscas por turma, RA e aluno.
+     * Cada conversão só roda enquanto a coluna antiga existe, para que a migração possa ser retomada.
+     */
+    private static void migrarParaV2(Statement stmt) throws SQLException {
+        Connection conn = stmt.getConnection();
+        stmt.execute("ALTER TABLE disciplina ADD COLUMN IF NOT EXISTS tipo VARCHAR(32)");
+
+        stmt.execute("ALTER TABLE nota ADD COLUMN IF NOT EXISTS disciplina_id INT");
+        stmt.execute("ALTER TABLE nota ADD COLUMN IF NOT EXISTS slot SMALLINT");
+        if (existeColuna(conn, "NOTA", "DISCIPLINA")) {
+            // A nota guardava o nome da disciplina; a disciplina correspondente é a de mesmo nome na turma do aluno.
+            stmt.execute("UPDATE nota n SET disciplina_id = (" +
+                    " SELECT MIN(d.id) FROM disciplina d JOIN aluno a ON a.turma_id = d.turma_id" +
+                    " WHERE a.id = n.aluno_id AND d.nome = n.disciplina)");
+        }
+        if (existeColuna(conn, "NOTA", "DESCRICAO")) {
+            StringBuilder slots = new StringBuilder("UPDATE nota SET slot = CASE descricao");
+            for (NotaSlot slot : NotaSlot.values()) {
+                slots.append(" WHEN '").append(slot.getDescricao()).append("' THEN ").append(slot.getCodigo());
+            }
+            stmt.execute(slots.append(" END").toString());
+        }
+
+        int orfas = stmt.executeUpdate("DELETE FROM nota WHERE disciplina_id IS NULL OR slot IS NULL OR aluno_id IS NULL");
+        if (orfas > 0) {
+            System.err.printf("AVISO: %d nota(s) sem disciplina ou com descrição inválida foram descartadas na migração.%n", orfas);
+        }
+
+        stmt.execute("ALTER TABLE nota ALTER COLUMN disciplina_id SET NOT NULL");
+        stmt.execute("ALTER TABLE nota ALTER COLUMN slot SET NOT NULL");
+        stmt.execute("ALTER TABLE nota ADD CONSTRAINT IF NOT EXISTS fk_nota_disciplina FOREIGN KEY (disciplina_id) REFERENCES disciplina(id) ON DELETE CASCADE");
+        stmt.execute("ALTER TABLE nota DROP COLUMN IF EXISTS disciplina");
+        stmt.execute("ALTER TABLE nota DROP COLUMN IF EXISTS descricao");
+
+        stmt.execute("CREATE INDEX IF NOT EXISTS idx_aluno_turma_ra ON aluno (turma_id, ra)");
+        stmt.execute("CREATE INDEX IF NOT EXISTS idx_aluno_ra ON aluno (ra)");
+        stmt.execute("CREATE INDEX IF NOT EXISTS idx_disciplina_turma_codigo ON disciplina (turma_id, codigo)");
+        stmt.execute("CREATE INDEX IF NOT EXISTS idx_nota_aluno_disciplina_slot ON nota (aluno_id, disciplina_id, slot)");
+    }
+
+    // --- Versão 3 ---
+
+    /**
+     * Tabela situacao_resumo (ver ResumoSituacaoDAO), lida pelo Dashboard e mantida pela sincronização.
+     * Só cria a tabela; ela é preenchida depois das migrações (reconstroiResumo).
+     */
+    private static void migrarParaV3(Statement stmt) throws SQLException {
+        stmt.execute("CREATE TABLE IF NOT EXISTS situacao_resumo (" +
+                " turma_id INT NOT NULL," +
+                " disciplina_id INT NOT NULL," +
+                " situacao SMALLINT NOT NULL," +
+                " quantidade INT NOT NULL," +
+                " media DOUBLE PRECISION NOT NULL," +
+                " PRIMARY KEY (turma_id, disciplina_id, situacao)," +
+                " FOREIGN KEY (turma_id) REFERENCES turma(id) ON DELETE CASCADE," +
+                " FOREIGN KEY (disciplina_id) REFERENCES disciplina(id) ON DELETE CASCADE)");
+    }
+
+    // --- Versão 4 ---
+
+    /**
+     * Tabela versao_dados (ver VersaoDadosDAO), incrementada a cada sincronização com alterações.
+     */
+    private static void migrarParaV4(Statement stmt) throws SQLException {
+        stmt.execute("CREATE TABLE IF NOT EXISTS versao_dados (" +
+                " id INT PRIMARY KEY," +
+                " versao BIGINT NOT NULL)");
+        stmt.execute("INSERT INTO versao_dados (id, versao) SELECT 1, 0 WHERE NOT EXISTS (SELECT 1 FROM versao_dados)");
+    }
+
+    // --- Versão 5 ---
+
+    /**
+     * Regra de avaliação efetiva de cada disciplina (a configurada ou a padrão), gravada pela sincronização para
+     * que o resumo de situações use os mesmos cortes, pesos e recuperação que a aplicação.
+     * Até a próxima sincronização vale a regra padrão de então: cortes 6.0/4.0, pesos iguais e recuperação
+     * trimestral para o 8º e o 9º ano. Por isso o resumo não muda com esta migração.
+     */
+    private static void migrarParaV5(Statement stmt) throws SQLException {
+        stmt.execute("ALTER TABLE disciplina ADD COLUMN IF NOT EXISTS recuperacao_trimestral BOOLEAN DEFAULT FALSE NOT NULL");
+        stmt.execute("ALTER TABLE disciplina ADD COLUMN IF NOT EXISTS media_aprovacao DOUBLE PRECISION DEFAULT 6.0 NOT NULL");
+        stmt.execute("ALTER TABLE disciplina ADD COLUMN IF NOT EXISTS media_recuperacao DOUBLE PRECISION DEFAULT 4.0 NOT NULL");
+        stmt.execute("ALTER TABLE disciplina ADD COLUMN IF NOT EXISTS peso_t1 DOUBLE PRECISION DEFAULT 1.0 NOT NULL");
+        stmt.execute("ALTER TABLE disciplina ADD COLUMN IF NOT EXISTS peso_t2 DOUBLE PRECISION DEFAULT 1.0 NOT NULL");
+        stmt.execute("ALTER TABLE disciplina ADD COLUMN IF NOT EXISTS peso_t3 DOUBLE PRECISION DEFAULT 1.0 NOT NULL");
+        stmt.execute("UPDATE disciplina SET recuperacao_trimestral = TRUE WHERE turma_id IN (" +
+                " SELECT id FROM turma WHERE nome LIKE '%8º ANO%' OR nome LIKE '%9º ANO%')");
+    }
+}
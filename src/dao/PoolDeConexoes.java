@@ -0,0 +1,278 @@
+package dao;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Pool simples de conexões JDBC, com cache de PreparedStatement por conexão.
+ * <p>
+ * {@link #obter()} devolve um proxy da conexão real: {@code close()} não fecha a conexão, apenas a devolve ao pool
+ * (desfazendo uma transação não confirmada). Os {@code prepareStatement} repetidos com o mesmo SQL reaproveitam
+ * o statement já preparado; o {@code close()} do statement também só o devolve ao cache da conexão.
+ * Assim os DAOs continuam usando try-with-resources normalmente e deixam de pagar conexão e parse a cada chamada.
+ */
+class PoolDeConexoes {
+
+    // Conexões ociosas mantidas abertas; as excedentes são fechadas ao serem devolvidas.
+    private static final int MAXIMO_OCIOSAS = 4;
+    // Statements preparados mantidos por conexão (os menos usados recentemente são fechados).
+    private static final int MAXIMO_STATEMENTS_POR_CONEXAO = 32;
+
+    private final String url;
+    private final String usuario;
+    private final String senha;
+    private final Deque<ConexaoDoPool> ociosas = new ArrayDeque<>(); // Protegida por 'this'
+
+    PoolDeConexoes(String url, String usuario, String senha) {
+        this.url = url;
+        this.usuario = usuario;
+        this.senha = senha;
+    }
+
+    Connection obter() throws SQLException {
+        ConexaoDoPool conexao;
+        synchronized (this) {
+            conexao = ociosas.pollFirst(); // A mais recente: é a que tem o cache mais "quente"
+        }
+        if (conexao == null || conexao.real.isClosed()) {
+            conexao = new ConexaoDoPool(DriverManager.getConnection(url, usuario, senha));
+        }
+        return conexao.emprestar();
+    }
+
+    /**
+     * Fecha as conexões ociosas (ex: ao encerrar a aplicação, para o H2 fechar o arquivo do banco).
+     */
+    void fecharOciosas() {
+        synchronized (this) {
+            for (ConexaoDoPool conexao : ociosas) {
+                conexao.fecharReal();
+            }
+            ociosas.clear();
+        }
+    }
+
+    private void devolver(ConexaoDoPool conexao) {
+        try {
+            conexao.liberarStatements();
+            if (!conexao.real.getAutoCommit()) {
+                conexao.real.rollback(); // Transação não confirmada pelo DAO é descartada, como no close() real
+                conexao.real.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            // Conexão em estado desconhecido: não volta para o pool.
+            System.err.println("AVISO: Conexão descartada ao voltar para o pool: " + e.getMessage());
+            conexao.fecharReal();
+            return;
+        }
+        synchronized (this) {
+            if (ociosas.size() < MAXIMO_OCIOSAS) {
+                ociosas.addFirst(conexao);
+                return;
+            }
+        }
+        conexao.fecharReal();
+    }
+
+    /**
+     * Uma conexão física e o seu cache de statements. Cada empréstimo recebe um proxy novo, para que um
+     * proxy antigo, já fechado, não consiga mais usar a conexão.
+     */
+    private final class ConexaoDoPool {
+        private final Connection real;
+        // Chave: SQL + tipo de prepareStatement. Ordem de acesso para o descarte LRU.
+        private final LinkedHashMap<String, StatementEmCache> statements = new LinkedHashMap<>(16, 0.75f, true);
+
+        ConexaoDoPool(Connection real) {
+            this.real = real;
+        }
+
+        Connection emprestar() {
+            InvocationHandler handler = new InvocationHandler() {
+                private boolean fechada;
+
+                @Override
+                public Object invoke(Object proxy, Method metodo, Object[] args) throws Throwable {
+                    switch (metodo.getName()) {
+                        case "close":
+                            if (!fechada) {
+                                fechada = true;
+                                devolver(ConexaoDoPool.this);
+                            }
+                            return null;
+                        case "isClosed":
+                            return fechada || real.isClosed();
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "toString":
+                            return "Conexão do pool (" + real + ")";
+                        default:
+                            break;
+                    }
+                    if (fechada) {
+                        throw new SQLException("Conexão já devolvida ao pool.");
+                    }
+                    if (metodo.getName().equals("prepareStatement") && podeUsarCache(metodo)) {
+                        return preparar((Connection) proxy, metodo, args);
+                    }
+                    return invocar(real, metodo, args);
+                }
+            };
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class}, handler);
+        }
+
+        // Apenas prepareStatement(String) e prepareStatement(String, int autoGeneratedKeys).
+        private boolean podeUsarCache(Method metodo) {
+            Class<?>[] parametros = metodo.getParameterTypes();
+            return parametros.length == 1 || (parametros.length == 2 && parametros[1] == int.class);
+        }
+
+        private PreparedStatement preparar(Connection conexaoProxy, Method metodo, Object[] args) throws Throwable {
+            String chave = args.length == 1 ? (String) args[0] : args[1] + "|" + args[0];
+            StatementEmCache emCache = statements.get(chave);
+            if (emCache != null && emCache.emUso) {
+                // O mesmo SQL já está aberto nesta conexão (ex: um lote em andamento): prepara um avulso.
+                return (PreparedStatement) invocar(real, metodo, args);
+            }
+            if (emCache == null || emCache.real.isClosed()) {
+                emCache = new StatementEmCache((PreparedStatement) invocar(real, metodo, args));
+                statements.put(chave, emCache);
+                descartarExcedentes();
+            }
+            return emCache.emprestar(conexaoProxy);
+        }
+
+        private void descartarExcedentes() {
+            Iterator<StatementEmCache> iterator = statements.values().iterator();
+            while (statements.size() > MAXIMO_STATEMENTS_POR_CONEXAO && iterator.hasNext()) {
+                StatementEmCache maisAntigo = iterator.next();
+                if (!maisAntigo.emUso) {
+                    iterator.remove();
+                    maisAntigo.fecharReal();
+                }
+            }
+        }
+
+        // Statements que o DAO esqueceu de fechar voltam ao cache quando a conexão volta ao pool.
+        void liberarStatements() throws SQLException {
+            for (StatementEmCache emCache : statements.values()) {
+                emCache.liberar();
+            }
+        }
+
+        void fecharReal() {
+            for (Map.Entry<String, StatementEmCache> item : statements.entrySet()) {
+                item.getValue().fecharReal();
+            }
+            statements.clear();
+            try {
+                real.close();
+            } catch (SQLException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Um PreparedStatement real guardado no cache, emprestado a um proxy por vez.
+     */
+    private static final class StatementEmCache {
+        private final PreparedStatement real;
+        private boolean emUso;
+        private int emprestimoAtual; // Um proxy de um empréstimo anterior não pode mais usar o statement
+        private ResultSet ultimoResultado; // Fechado junto com o statement, como no close() real
+
+        StatementEmCache(PreparedStatement real) {
+            this.real = real;
+        }
+
+        PreparedStatement emprestar(Connection conexaoProxy) {
+            emUso = true;
+            int emprestimo = ++emprestimoAtual;
+            InvocationHandler handler = new InvocationHandler() {
+                private boolean fechado;
+
+                private boolean ativo() {
+                    return !fechado && emUso && emprestimo == emprestimoAtual;
+                }
+
+                @Override
+                public Object invoke(Object proxy, Method metodo, Object[] args) throws Throwable {
+                    switch (metodo.getName()) {
+                        case "close":
+                            if (ativo()) {
+                                liberar();
+                            }
+                            fechado = true;
+                            return null;
+                        case "isClosed":
+                            return !ativo();
+                        case "getConnection":
+                            return conexaoProxy;
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "toString":
+                            return "Statement em cache (" + real + ")";
+                        default:
+                            break;
+                    }
+                    if (!ativo()) {
+                        throw new SQLException("Statement já fechado.");
+                    }
+                    Object resultado = invocar(real, metodo, args);
+                    if (resultado instanceof ResultSet resultSet && metodo.getName().equals("executeQuery")) {
+                        ultimoResultado = resultSet;
+                    }
+                    return resultado;
+                }
+            };
+            return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class}, handler);
+        }
+
+        void liberar() throws SQLException {
+            if (!emUso) {
+                return;
+            }
+            emUso = false;
+            if (ultimoResultado != null) {
+                ultimoResultado.close();
+                ultimoResultado = null;
+            }
+            real.clearParameters();
+            real.clearBatch();
+        }
+
+        void fecharReal() {
+            try {
+                real.close();
+            } catch (SQLException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private static Object invocar(Object alvo, Method metodo, Object[] args) throws Throwable {
+        try {
+            return metodo.invoke(alvo, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause(); // Repassa a SQLException original
+        }
+    }
+}
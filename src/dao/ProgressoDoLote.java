@@ -0,0 +1,19 @@
+package dao;
+
+/**
+ * Recebe o andamento de uma gravação em lotes: chamado uma vez por lote enviado ao banco.
+ */
+@FunctionalInterface
+public interface ProgressoDoLote {
+
+    /** Não informa nada. */
+    ProgressoDoLote NENHUM = (tabela, linhasNoLote, totalDeLinhas, linhasPorSegundo) -> {};
+
+    /**
+     * @param tabela           Tabela gravada (ex: "nota").
+     * @param linhasNoLote     Linhas enviadas neste lote.
+     * @param totalDeLinhas    Linhas enviadas até agora nesta tabela, incluindo este lote.
+     * @param linhasPorSegundo Vazão deste lote (linhas / tempo do {@code executeBatch}).
+     */
+    void loteGravado(String tabela, int linhasNoLote, long totalDeLinhas, double linhasPorSegundo);
+}
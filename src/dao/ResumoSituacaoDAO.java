@@ -0,0 +1,131 @@
+package dao;
+
+import model.NotaSlot;
+import model.Situacao;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collection;
+
+/**
+ * Mantém a tabela materializada {@code situacao_resumo}: por turma, disciplina e situação, quantos alunos
+ * estão nela e a média das suas médias finais.
+ * <p>
+ * As médias são calculadas no próprio H2, seguindo a mesma conta de {@link model.MatrizNotas}, com a regra de
+ * avaliação efetiva de cada disciplina (recuperação trimestral, cortes e pesos), gravada nas colunas da tabela
+ * {@code disciplina} pela sincronização ({@link SincronizacaoDAO}).
+ * <p>
+ * A sincronização chama {@link #atualizarTurmas(Collection)} só para as turmas em que algo mudou; o custo
+ * depende do tamanho dessas turmas, não do arquivo histórico inteiro. {@link #reconstruir()} refaz a tabela
+ * toda (ex: depois de alterações feitas no banco por fora da aplicação).
+ */
+public class ResumoSituacaoDAO {
+
+    // Literais como 0.0 viram DECFLOAT no H2, o que levaria toda a conta para aritmética decimal (lenta e com
+    // arredondamento diferente do Java). Por isso o zero é convertido para DOUBLE, o tipo das colunas da regra.
+    private static final String ZERO = "CAST(0 AS DOUBLE PRECISION)";
+
+    private static final String INSERIR = "INSERT INTO situacao_resumo (turma_id, disciplina_id, situacao, quantidade, media) ";
+    private static final String SQL_RECONSTRUIR = INSERIR + montarConsultaDeSituacoes("TRUE");
+    private static final String SQL_ATUALIZAR = INSERIR + montarConsultaDeSituacoes("t.id = ANY(?)");
+
+    private final Connection conn;
+
+    public ResumoSituacaoDAO(Connection conn) {
+        this.conn = conn;
+    }
+
+    /**
+     * Apaga e recalcula o resumo de todas as turmas. A transação fica a cargo de quem chama.
+     * @return Quantas linhas o resumo passou a ter.
+     */
+    public int reconstruir() throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("DELETE FROM situacao_resumo");
+        }
+        try (Statement insert = conn.createStatement()) {
+            return insert.executeUpdate(SQL_RECONSTRUIR);
+        }
+    }
+
+    /**
+     * Recalcula o resumo apenas das turmas informadas (turmas que não existem mais só têm o resumo apagado).
+     * A transação fica a cargo de quem chama.
+     */
+    public void atualizarTurmas(Collection<Integer> turmaIds) throws SQLException {
+        if (turmaIds.isEmpty()) {
+            return;
+        }
+        Array ids = conn.createArrayOf("INTEGER", turmaIds.toArray());
+        try (PreparedStatement delete = conn.prepareStatement("DELETE FROM situacao_resumo WHERE turma_id = ANY(?)")) {
+            delete.setArray(1, ids);
+            delete.executeUpdate();
+        }
+        try (PreparedStatement insert = conn.prepareStatement(SQL_ATUALIZAR)) {
+            insert.setArray(1, ids);
+            insert.executeUpdate();
+        }
+    }
+
+    /**
+     * Monta a consulta em quatro níveis: notas de cada aluno em cada disciplina (um valor por slot),
+     * médias trimestrais, média final e situação, e por fim a contagem por turma, disciplina e situação.
+     * As somas seguem a ordem N1 + N2 + N3 de {@link model.MatrizNotas}, para que o arredondamento
+     * (e portanto uma média no limite do corte) seja o mesmo.
+     */
+    private static String montarConsultaDeSituacoes(String filtroTurmas) {
+        StringBuilder notas = new StringBuilder();
+        StringBuilder medias = new StringBuilder();
+        StringBuilder mediaFinal = new StringBuilder("(");
+        for (int trimestre = 1; trimestre <= NotaSlot.TOTAL_TRIMESTRES; trimestre++) {
+            StringBuilder soma = new StringBuilder();
+            StringBuilder presentes = new StringBuilder();
+            for (NotaSlot.Tipo tipo : new NotaSlot.Tipo[]{NotaSlot.Tipo.N1, NotaSlot.Tipo.N2, NotaSlot.Tipo.N3}) {
+                int codigo = NotaSlot.of(trimestre, tipo).getCodigo();
+                soma.append(soma.isEmpty() ? "" : " + ").append("COALESCE(MAX(CASE WHEN n.slot = ").append(codigo).append(" THEN n.valor END), " + ZERO + ")");
+                presentes.append(presentes.isEmpty() ? "" : ", ").append(codigo);
+            }
+            int recuperacao = NotaSlot.of(trimestre, NotaSlot.Tipo.REC).getCodigo();
+            notas.append(", ").append(soma).append(" AS soma").append(trimestre)
+                    .append(", COUNT(DISTINCT CASE WHEN n.slot IN (").append(presentes).append(") THEN n.slot END) AS quantidade").append(trimestre)
+                    .append(", COALESCE(MAX(CASE WHEN n.slot = ").append(recuperacao).append(" THEN n.valor END), " + ZERO + ") AS recuperacao").append(trimestre);
+
+            // Sem nota regular no trimestre a média é 0 e a recuperação não se aplica.
+            String media = "soma" + trimestre + " / GREATEST(quantidade" + trimestre + ", 1)";
+            medias.append(", CASE WHEN com_recuperacao AND quantidade").append(trimestre).append(" > 0 AND ").append(media).append(" < media_aprovacao")
+                    .append(" THEN GREATEST(").append(media).append(", recuperacao").append(trimestre).append(")")
+                    .append(" ELSE ").append(media).append(" END AS media").append(trimestre);
+            mediaFinal.append(trimestre == 1 ? "" : " + ").append("peso_t").append(trimestre).append(" * media").append(trimestre);
+        }
+        // Soma dos pesos na mesma ordem de RegraAvaliacao, para o mesmo arredondamento.
+        mediaFinal.append(") / (peso_t1 + peso_t2 + peso_t3)");
+
+        String regra = "media_aprovacao, media_recuperacao, peso_t1, peso_t2, peso_t3";
+        return "SELECT turma_id, disciplina_id, situacao, COUNT(*), AVG(media_final) FROM (" +
+                " SELECT turma_id, disciplina_id, media_final, CASE WHEN media_final >= media_aprovacao THEN " + Situacao.APROVADO.ordinal() +
+                " WHEN media_final >= media_recuperacao THEN " + Situacao.RECUPERACAO_FINAL.ordinal() +
+                " ELSE " + Situacao.REPROVADO.ordinal() + " END AS situacao FROM (" +
+                "  SELECT turma_id, disciplina_id, media_aprovacao, media_recuperacao, " + mediaFinal + " AS media_final FROM (" +
+                "   SELECT turma_id, disciplina_id, " + regra + medias + " FROM (" +
+                // Todo aluno da turma conta em toda disciplina, mesmo sem notas (média 0).
+                // As notas são casadas pelo nome da disciplina, sem diferenciar maiúsculas, como no modelo em memória
+                // (Aluno). Como várias disciplinas podem casar e a nota não tem chave única, cada slot conta uma vez
+                // (MAX do valor e COUNT DISTINCT do slot), assim como na MatrizNotas.
+                "    SELECT t.id AS turma_id, d.id AS disciplina_id, d.recuperacao_trimestral AS com_recuperacao," +
+                "     d.media_aprovacao, d.media_recuperacao, d.peso_t1, d.peso_t2, d.peso_t3" + notas +
+                "    FROM turma t" +
+                "    JOIN aluno a ON a.turma_id = t.id" +
+                "    JOIN disciplina d ON d.turma_id = t.id" +
+                "    JOIN disciplina dn ON dn.turma_id = t.id AND UPPER(dn.nome) = UPPER(d.nome)" +
+                "    LEFT JOIN nota n ON n.aluno_id = a.id AND n.disciplina_id = dn.id" +
+                "    WHERE " + filtroTurmas +
+                "    GROUP BY t.id, a.id, d.id, d.recuperacao_trimestral, d.media_aprovacao, d.media_recuperacao, d.peso_t1, d.peso_t2, d.peso_t3" +
+                "   ) notas_por_aluno" +
+                "  ) medias_trimestrais" +
+                " ) medias_finais" +
+                ") situacoes GROUP BY turma_id, disciplina_id, situacao";
+    }
+}
@@ -0,0 +1,393 @@
+package dao;
+
+import model.Aluno;
+import model.Disciplina;
+import model.Nota;
+import model.NotaSlot;
+import model.RegraAvaliacao;
+import model.Turma;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Sincronização incremental do modelo em memória com o banco.
+ * <p>
+ * Em vez de apagar e reinserir tudo, compara cada tabela com o modelo pelas chaves naturais
+ * (turma: codigo; disciplina: turma + codigo; aluno: turma + RA; nota: aluno + disciplina + slot)
+ * e aplica só as diferenças: {@code MERGE ... KEY} em lote para linhas novas ou alteradas e
+ * {@code DELETE} em lote para linhas que não existem mais no modelo. A disciplina também guarda a sua regra
+ * de avaliação efetiva ({@link Turma#getRegraAvaliacao(Disciplina)}), usada pelo resumo de situações. No fim, o resumo de situações
+ * ({@link ResumoSituacaoDAO}) é recalculado apenas para as turmas que tiveram alguma alteração e a versão
+ * dos dados ({@link VersaoDadosDAO}) é incrementada.
+ * Os lotes são enviados ao banco a cada {@code tamanhoDoLote} linhas ({@link GravadorEmLotes}), para que
+ * sincronizações com centenas de milhares de notas não acumulem tudo num único {@code executeBatch}; as notas
+ * existentes também são lidas e comparadas uma turma por vez.
+ * A transação fica a cargo de quem chama.
+ */
+public class SincronizacaoDAO {
+
+    /**
+     * Quantidade de linhas inseridas, atualizadas e removidas em uma tabela.
+     */
+    public static final class Contagem {
+        private int inseridos;
+        private int atualizados;
+        private int removidos;
+
+        public int getInseridos() { return inseridos; }
+        public int getAtualizados() { return atualizados; }
+        public int getRemovidos() { return removidos; }
+
+        public boolean semAlteracoes() {
+            return inseridos == 0 && atualizados == 0 && removidos == 0;
+        }
+
+        @Override
+        public String toString() {
+            return inseridos + " inserido(s), " + atualizados + " atualizado(s), " + removidos + " removido(s)";
+        }
+    }
+
+    /**
+     * Contagens por tabela de uma sincronização.
+     */
+    public static final class Resultado {
+        private final Contagem turmas = new Contagem();
+        private final Contagem disciplinas = new Contagem();
+        private final Contagem alunos = new Contagem();
+        private final Contagem notas = new Contagem();
+        // Turmas cujas situações podem ter mudado (notas, alunos, disciplinas ou a regra de uma disciplina alterados).
+        private final Set<Integer> turmasAlteradas = new HashSet<>();
+
+        public Contagem getTurmas() { return turmas; }
+        public Contagem getDisciplinas() { return disciplinas; }
+        public Contagem getAlunos() { return alunos; }
+        public Contagem getNotas() { return notas; }
+
+        public boolean semAlteracoes() {
+            return turmas.semAlteracoes() && disciplinas.semAlteracoes() && alunos.semAlteracoes() && notas.semAlteracoes();
+        }
+    }
+
+    // Linha existente no banco: id, turma a que pertence e o valor comparado com o modelo.
+    private record Linha(int id, int turmaId, Object valor) {}
+
+    private final Connection conn;
+    private final int tamanhoDoLote;
+    private final ProgressoDoLote progresso;
+
+    public SincronizacaoDAO(Connection conn) {
+        this(conn, GravadorEmLotes.TAMANHO_PADRAO, ProgressoDoLote.NENHUM);
+    }
+
+    /**
+     * @param tamanhoDoLote A cada quantas linhas um lote de MERGE ou DELETE é enviado ao banco.
+     * @param progresso     Informado a cada lote enviado.
+     */
+    public SincronizacaoDAO(Connection conn, int tamanhoDoLote, ProgressoDoLote progresso) {
+        this.conn = conn;
+        this.tamanhoDoLote = tamanhoDoLote;
+        this.progresso = progresso;
+    }
+
+    /**
+     * Leva o banco ao estado das turmas informadas. Define o id de banco em cada turma e aluno.
+     */
+    public Resultado sincronizar(List<Turma> turmas) throws SQLException {
+        Resultado resultado = new Resultado();
+        sincronizarTurmas(turmas, resultado);
+        sincronizarDisciplinas(turmas, resultado);
+        sincronizarAlunos(turmas, resultado);
+        sincronizarNotas(turmas, resultado);
+        new ResumoSituacaoDAO(conn).atualizarTurmas(resultado.turmasAlteradas);
+        if (!resultado.semAlteracoes()) {
+            new VersaoDadosDAO(conn).incrementar(); // Caches do conteúdo do banco (ex: Dashboard) deixam de valer
+        }
+        return resultado;
+    }
+
+    private void sincronizarTurmas(List<Turma> turmas, Resultado resultado) throws SQLException {
+        Contagem contagem = resultado.turmas;
+        List<Linha> duplicadas = new ArrayList<>();
+        Map<String, Linha> existentes = lerLinhas("SELECT id, id AS turma_id, codigo, nome FROM turma ORDER BY id", duplicadas,
+                rs -> rs.getString("codigo"), rs -> rs.getString("nome"));
+
+        removerIds("turma", duplicadas, resultado);
+
+        Set<String> vistas = new HashSet<>();
+        try (PreparedStatement merge = conn.prepareStatement("MERGE INTO turma (codigo, nome) KEY (codigo) VALUES (?, ?)")) {
+            GravadorEmLotes lote = lote(merge, "turma");
+            for (Turma turma : turmas) {
+                if (!vistas.add(turma.getCodigoTurma())) {
+                    System.err.printf("AVISO: Turma '%s' repetida foi ignorada na sincronização.%n", turma.getCodigoTurma());
+                    continue;
+                }
+                Linha linha = existentes.remove(turma.getCodigoTurma());
+                if (linha == null || !Objects.equals(linha.valor(), turma.getNomeTurma())) {
+                    merge.setString(1, turma.getCodigoTurma());
+                    merge.setString(2, turma.getNomeTurma());
+                    lote.adicionar();
+                    contar(contagem, linha);
+                }
+            }
+            lote.gravar();
+        }
+        // Disciplinas, alunos e notas das turmas removidas saem junto (ON DELETE CASCADE).
+        contagem.removidos += removerIds("turma", sobras(existentes), resultado);
+
+        Map<String, Integer> ids = lerIds("SELECT id, codigo FROM turma", rs -> rs.getString("codigo"));
+        for (Turma turma : turmas) {
+            turma.setId(ids.getOrDefault(turma.getCodigoTurma(), 0));
+        }
+    }
+
+    private void sincronizarDisciplinas(List<Turma> turmas, Resultado resultado) throws SQLException {
+        Contagem contagem = resultado.disciplinas;
+        List<Linha> duplicadas = new ArrayList<>();
+        Map<String, Linha> existentes = lerLinhas("SELECT id, turma_id, codigo, nome, tipo, recuperacao_trimestral, media_aprovacao," +
+                        " media_recuperacao, peso_t1, peso_t2, peso_t3 FROM disciplina ORDER BY id", duplicadas,
+                rs -> chave(rs.getInt("turma_id"), rs.getString("codigo")),
+                rs -> chave(rs.getString("nome"), rs.getString("tipo"), rs.getBoolean("recuperacao_trimestral"),
+                        rs.getDouble("media_aprovacao"), rs.getDouble("media_recuperacao"),
+                        rs.getDouble("peso_t1"), rs.getDouble("peso_t2"), rs.getDouble("peso_t3")));
+
+        removerIds("disciplina", duplicadas, resultado);
+
+        Set<String> vistas = new HashSet<>();
+        try (PreparedStatement merge = conn.prepareStatement(
+                "MERGE INTO disciplina (turma_id, codigo, nome, tipo, recuperacao_trimestral, media_aprovacao, media_recuperacao," +
+                        " peso_t1, peso_t2, peso_t3) KEY (turma_id, codigo) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)")) {
+            GravadorEmLotes lote = lote(merge, "disciplina");
+            for (Turma turma : turmas) {
+                for (Disciplina disciplina : turma.getDisciplinas()) {
+                    String chave = chave(turma.getId(), disciplina.getCodigoDisciplina());
+                    if (turma.getId() == 0 || !vistas.add(chave)) {
+                        continue;
+                    }
+                    // A regra efetiva (configurada ou padrão) é gravada para o resumo de situações usar a mesma conta.
+                    RegraAvaliacao regra = turma.getRegraAvaliacao(disciplina);
+                    Linha linha = existentes.remove(chave);
+                    if (linha == null || !Objects.equals(linha.valor(), chave(disciplina.getNomeDisciplina(), disciplina.getTipo(),
+                            regra.isRecuperacaoTrimestral(), regra.getMediaAprovacao(), regra.getMediaRecuperacao(),
+                            regra.getPesoTrimestre(1), regra.getPesoTrimestre(2), regra.getPesoTrimestre(3)))) {
+                        merge.setInt(1, turma.getId());
+                        merge.setString(2, disciplina.getCodigoDisciplina());
+                        merge.setString(3, disciplina.getNomeDisciplina());
+                        merge.setString(4, disciplina.getTipo());
+                        merge.setBoolean(5, regra.isRecuperacaoTrimestral());
+                        merge.setDouble(6, regra.getMediaAprovacao());
+                        merge.setDouble(7, regra.getMediaRecuperacao());
+                        for (int trimestre = 1; trimestre <= NotaSlot.TOTAL_TRIMESTRES; trimestre++) {
+                            merge.setDouble(7 + trimestre, regra.getPesoTrimestre(trimestre));
+                        }
+                        lote.adicionar();
+                        contar(contagem, linha);
+                        resultado.turmasAlteradas.add(turma.getId());
+                    }
+                }
+            }
+            lote.gravar();
+        }
+        contagem.removidos += removerIds("disciplina", sobras(existentes), resultado);
+    }
+
+    private void sincronizarAlunos(List<Turma> turmas, Resultado resultado) throws SQLException {
+        Contagem contagem = resultado.alunos;
+        List<Linha> duplicadas = new ArrayList<>();
+        Map<String, Linha> existentes = lerLinhas("SELECT id, turma_id, ra, nome FROM aluno ORDER BY id", duplicadas,
+                rs -> chave(rs.getInt("turma_id"), rs.getString("ra")), rs -> rs.getString("nome"));
+
+        removerIds("aluno", duplicadas, resultado);
+
+        Set<String> vistas = new HashSet<>();
+        try (PreparedStatement merge = conn.prepareStatement(
+                "MERGE INTO aluno (turma_id, ra, nome) KEY (turma_id, ra) VALUES (?, ?, ?)")) {
+            GravadorEmLotes lote = lote(merge, "aluno");
+            for (Turma turma : turmas) {
+                for (Aluno aluno : turma.getAlunos()) {
+                    String chave = chave(turma.getId(), aluno.getRa());
+                    if (turma.getId() == 0 || !vistas.add(chave)) {
+                        continue; // O RA identifica o aluno na turma: uma segunda linha com o mesmo RA não tem como ser separada
+                    }
+                    Linha linha = existentes.remove(chave);
+                    if (linha == null || !Objects.equals(linha.valor(), aluno.getNome())) {
+                        merge.setInt(1, turma.getId());
+                        merge.setString(2, aluno.getRa());
+                        merge.setString(3, aluno.getNome());
+                        lote.adicionar();
+                        contar(contagem, linha);
+                        if (linha == null) {
+                            resultado.turmasAlteradas.add(turma.getId()); // Aluno novo conta em todas as disciplinas
+                        }
+                    }
+                }
+            }
+            lote.gravar();
+        }
+        contagem.removidos += removerIds("aluno", sobras(existentes), resultado);
+
+        Map<String, Integer> ids = lerIds("SELECT id, turma_id, ra FROM aluno", rs -> chave(rs.getInt("turma_id"), rs.getString("ra")));
+        for (Turma turma : turmas) {
+            for (Aluno aluno : turma.getAlunos()) {
+                aluno.setId(ids.getOrDefault(chave(turma.getId(), aluno.getRa()), 0));
+            }
+        }
+    }
+
+    /**
+     * Compara as notas turma a turma: só as notas existentes da turma atual ficam em memória (lidas pelo índice
+     * de aluno), e o mapa é descartado depois que os lotes da turma são gravados. Assim o uso de memória depende
+     * do tamanho da maior turma, não do arquivo histórico inteiro.
+     */
+    private void sincronizarNotas(List<Turma> turmas, Resultado resultado) throws SQLException {
+        Contagem contagem = resultado.notas;
+        // No modelo a nota guarda o nome da disciplina; no banco, o id da disciplina da turma do aluno.
+        Map<String, Integer> disciplinas = lerIds("SELECT id, turma_id, nome FROM disciplina ORDER BY id",
+                rs -> chave(rs.getInt("turma_id"), rs.getString("nome")));
+
+        Set<Integer> turmasVistas = new HashSet<>();
+        Set<Integer> alunosVistos = new HashSet<>();
+        try (PreparedStatement consulta = conn.prepareStatement("SELECT n.id, n.aluno_id, n.disciplina_id, n.slot, n.valor, a.turma_id" +
+                " FROM aluno a JOIN nota n ON n.aluno_id = a.id WHERE a.turma_id = ? ORDER BY n.id");
+             PreparedStatement merge = conn.prepareStatement(
+                "MERGE INTO nota (aluno_id, disciplina_id, slot, valor) KEY (aluno_id, disciplina_id, slot) VALUES (?, ?, ?, ?)")) {
+            GravadorEmLotes lote = lote(merge, "nota");
+            for (Turma turma : turmas) {
+                if (turma.getId() == 0 || !turmasVistas.add(turma.getId())) {
+                    continue;
+                }
+                consulta.setInt(1, turma.getId());
+                List<Linha> duplicadas = new ArrayList<>();
+                Map<String, Linha> existentes = lerLinhas(consulta, duplicadas,
+                        rs -> chave(rs.getInt("aluno_id"), rs.getInt("disciplina_id"), rs.getInt("slot")), rs -> rs.getDouble("valor"));
+                removerIds("nota", duplicadas, resultado);
+
+                for (Aluno aluno : turma.getAlunos()) {
+                    if (aluno.getId() == 0 || !alunosVistos.add(aluno.getId())) {
+                        continue;
+                    }
+                    for (Nota nota : aluno.getNotas()) {
+                        Integer disciplinaId = disciplinas.get(chave(turma.getId(), nota.getDisciplina()));
+                        if (disciplinaId == null) {
+                            continue; // Disciplina que não pertence à turma
+                        }
+                        int slot = nota.getSlot().getCodigo();
+                        Linha linha = existentes.remove(chave(aluno.getId(), disciplinaId, slot));
+                        if (linha == null || Double.compare((Double) linha.valor(), nota.getValor()) != 0) {
+                            merge.setInt(1, aluno.getId());
+                            merge.setInt(2, disciplinaId);
+                            merge.setShort(3, (short) slot);
+                            merge.setDouble(4, nota.getValor());
+                            lote.adicionar();
+                            contar(contagem, linha);
+                            resultado.turmasAlteradas.add(turma.getId());
+                        }
+                    }
+                }
+                lote.gravar();
+                contagem.removidos += removerIds("nota", sobras(existentes), resultado);
+            }
+        }
+        // Notas sem aluno (possíveis em bancos antigos) não pertencem a nenhuma turma.
+        try (Statement stmt = conn.createStatement()) {
+            contagem.removidos += stmt.executeUpdate("DELETE FROM nota WHERE aluno_id IS NULL");
+        }
+    }
+
+    // --- Utilitários ---
+
+    @FunctionalInterface
+    private interface Coluna<T> {
+        T ler(ResultSet rs) throws SQLException;
+    }
+
+    /**
+     * Lê as linhas de uma tabela por chave natural. Linhas repetidas para a mesma chave (possíveis em bancos
+     * gerados pela sincronização completa antiga) vão para {@code duplicadas}: são removidas antes do MERGE,
+     * que falha quando a chave corresponde a mais de uma linha.
+     */
+    private Map<String, Linha> lerLinhas(String sql, List<Linha> duplicadas, Coluna<String> chave, Coluna<Object> valor) throws SQLException {
+        try (PreparedStatement consulta = conn.prepareStatement(sql)) {
+            return lerLinhas(consulta, duplicadas, chave, valor);
+        }
+    }
+
+    private static Map<String, Linha> lerLinhas(PreparedStatement consulta, List<Linha> duplicadas, Coluna<String> chave, Coluna<Object> valor) throws SQLException {
+        Map<String, Linha> linhas = new HashMap<>();
+        try (ResultSet rs = consulta.executeQuery()) {
+            while (rs.next()) {
+                Linha linha = new Linha(rs.getInt("id"), rs.getInt("turma_id"), valor.ler(rs));
+                if (linhas.putIfAbsent(chave.ler(rs), linha) != null) {
+                    duplicadas.add(linha);
+                }
+            }
+        }
+        return linhas;
+    }
+
+    private Map<String, Integer> lerIds(String sql, Coluna<String> chave) throws SQLException {
+        Map<String, Integer> ids = new HashMap<>();
+        try (Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery(sql)) {
+            while (rs.next()) {
+                ids.putIfAbsent(chave.ler(rs), rs.getInt("id"));
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Remove em lote as linhas informadas e marca as suas turmas como alteradas.
+     * @return Quantas linhas foram removidas.
+     */
+    private int removerIds(String tabela, List<Linha> linhas, Resultado resultado) throws SQLException {
+        if (linhas.isEmpty()) {
+            return 0;
+        }
+        try (PreparedStatement delete = conn.prepareStatement("DELETE FROM " + tabela + " WHERE id = ?")) {
+            GravadorEmLotes lote = lote(delete, tabela + " (remoção)");
+            for (Linha linha : linhas) {
+                delete.setInt(1, linha.id());
+                lote.adicionar();
+                resultado.turmasAlteradas.add(linha.turmaId());
+            }
+            lote.gravar();
+        }
+        return linhas.size();
+    }
+
+    private GravadorEmLotes lote(PreparedStatement pstmt, String tabela) {
+        return new GravadorEmLotes(pstmt, tabela, tamanhoDoLote, progresso);
+    }
+
+    // Linhas que sobraram no banco sem correspondente no modelo.
+    private static List<Linha> sobras(Map<String, Linha> existentes) {
+        return new ArrayList<>(existentes.values());
+    }
+
+    private static void contar(Contagem contagem, Linha existente) {
+        if (existente == null) {
+            contagem.inseridos++;
+        } else {
+            contagem.atualizados++;
+        }
+    }
+
+    private static String chave(Object... partes) {
+        StringBuilder chave = new StringBuilder();
+        for (Object parte : partes) {
+            chave.append(parte).append('\u0000');
+        }
+        return chave.toString();
+    }
+}
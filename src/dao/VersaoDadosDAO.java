@@ -0,0 +1,38 @@
+package dao;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Número de versão do conteúdo do banco (tabela {@code versao_dados}, uma única linha).
+ * <p>
+ * Quem altera os dados (sincronização, reconstrução do resumo) incrementa a versão na mesma transação.
+ * Quem guarda dados do banco em cache (ex: o Dashboard) compara a versão lida com a do cache: como a versão
+ * fica no próprio banco, a comparação vale também para alterações feitas por outro processo.
+ */
+public class VersaoDadosDAO {
+
+    private final Connection conn;
+
+    public VersaoDadosDAO(Connection conn) {
+        this.conn = conn;
+    }
+
+    public long ler() throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT versao FROM versao_dados WHERE id = 1")) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+
+    /**
+     * Marca que o conteúdo do banco mudou. A transação fica a cargo de quem chama.
+     */
+    public void incrementar() throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("UPDATE versao_dados SET versao = versao + 1 WHERE id = 1");
+        }
+    }
+}
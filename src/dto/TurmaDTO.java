@@ -6,6 +6,7 @@ public class TurmaDTO {
     private String codigoTurma;
     private String nomeTurma;
     private List<DisciplinaDTO> disciplinas;
+    private RegraAvaliacaoDTO regraAvaliacao; // Opcional
 
     // Getters para TurmaDTO
     public String getCodigoTurma() {
@@ -20,10 +21,15 @@ public class TurmaDTO {
         return disciplinas;
     }
 
+    public RegraAvaliacaoDTO getRegraAvaliacao() {
+        return regraAvaliacao;
+    }
+
     public static class DisciplinaDTO {
         private String codigoDisciplina;
         private String nomeDisciplina;
         private String tipo;
+        private RegraAvaliacaoDTO regraAvaliacao; // Opcional; sobrescreve a regra da turma
 
         // Getters para DisciplinaDTO
         public String getCodigoDisciplina() {
@@ -37,5 +43,33 @@ public class TurmaDTO {
         public String getTipo() {
             return tipo;
         }
+
+        public RegraAvaliacaoDTO getRegraAvaliacao() {
+            return regraAvaliacao;
+        }
+    }
+
+    // Configuração opcional da regra de avaliação. Campos ausentes herdam da regra de nível superior.
+    public static class RegraAvaliacaoDTO {
+        private Boolean recuperacaoTrimestral;
+        private Double mediaAprovacao;
+        private Double mediaRecuperacao;
+        private double[] pesosTrimestres;
+
+        public Boolean getRecuperacaoTrimestral() {
+            return recuperacaoTrimestral;
+        }
+
+        public Double getMediaAprovacao() {
+            return mediaAprovacao;
+        }
+
+        public Double getMediaRecuperacao() {
+            return mediaRecuperacao;
+        }
+
+        public double[] getPesosTrimestres() {
+            return pesosTrimestres;
+        }
     }
 }
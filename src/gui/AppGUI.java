@@ -1,5 +1,6 @@
 package gui;
 
+import dao.ConexaoBD;
 import gui.components.DashboardPane;
 import gui.components.TurmaDetailsPane; // Importa o novo componente
 import gui.components.TurmaListPane;   // Importa o novo componente
@@ -102,6 +103,15 @@ public class AppGUI extends Application {
         primaryStage.show();
     }
 
+    @Override
+    public void stop() {
+        // Garante que as alterações ainda na fila de gravação sejam escritas antes de sair.
+        if (gerenciador != null) {
+            gerenciador.encerrar();
+        }
+        ConexaoBD.fecharConexoes();
+    }
+
     public static void main(String[] args) {
         launch(args);
     }
@@ -8,12 +8,15 @@ import javafx.scene.control.TitledPane;
 import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.scene.layout.VBox;
 import model.Aluno;
+import model.Disciplina;
 import model.Nota;
+import model.RegraAvaliacao;
 import model.Turma;
 import model.Situacao;
 
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
 import java.util.stream.Collectors;
 
 /**
@@ -45,13 +48,22 @@ public class AlunoNotesPane extends VBox {
         if (notasPorDisciplina.isEmpty()) {
             this.getChildren().add(new Label("Nenhuma nota encontrada para este aluno."));
         } else {
+            // Regras configuradas por disciplina, resolvidas uma vez; as demais disciplinas usam a regra da turma
+            Map<String, RegraAvaliacao> regrasPorDisciplina = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+            for (Disciplina disciplina : turma.getDisciplinas()) {
+                if (disciplina.getRegraAvaliacao() != null) {
+                    regrasPorDisciplina.putIfAbsent(disciplina.getNomeDisciplina(), disciplina.getRegraAvaliacao());
+                }
+            }
+
             for (Map.Entry<String, List<Nota>> entry : notasPorDisciplina.entrySet()) {
                 String nomeDisciplina = entry.getKey();
                 List<Nota> notasDaDisciplina = entry.getValue();
 
                 // Calcula média final e situação para a disciplina
-                double mediaFinal = aluno.calcularMediaFinalAnual(nomeDisciplina, turma);
-                Situacao situacao = aluno.getSituacaoFinal(nomeDisciplina, turma);
+                RegraAvaliacao regra = regrasPorDisciplina.getOrDefault(nomeDisciplina, turma.getRegraAvaliacao());
+                double mediaFinal = aluno.calcularMediaFinalAnual(nomeDisciplina, regra);
+                Situacao situacao = aluno.getSituacaoFinal(nomeDisciplina, regra);
 
                 // Cria um TitledPane para cada disciplina
                 TitledPane disciplinaPane = new TitledPane();
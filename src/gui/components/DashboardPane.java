@@ -1,6 +1,7 @@
 package gui.components;
 
 import javafx.collections.FXCollections;
+import javafx.concurrent.Task;
 import javafx.collections.ObservableList;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
@@ -11,12 +12,14 @@ import javafx.scene.chart.PieChart;
 import javafx.scene.chart.StackedBarChart;
 import javafx.scene.chart.XYChart;
 import javafx.scene.control.Label;
+import javafx.scene.control.ProgressIndicator;
 import javafx.scene.layout.GridPane;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.Priority;
+import javafx.scene.layout.StackPane;
 import javafx.scene.layout.VBox;
+import dao.EstatisticasDAO.EstatisticasTurma;
 import model.Situacao;
-import model.Turma;
 import service.DashboardService;
 
 import java.util.Map;
@@ -24,10 +27,15 @@ import java.util.List;
 
 /**
  * Painel de Dashboard que exibe métricas e gráficos a partir dos dados do banco de dados.
+ * <p>
+ * O painel aparece na hora com um indicador de carregamento; a consulta ao banco e a agregação rodam em
+ * uma {@link Task} fora da thread da interface. Se os dados em cache no {@link DashboardService} ainda valem,
+ * a tarefa só confere a versão dos dados no banco e termina em seguida.
  */
 public class DashboardPane extends VBox {
 
     private DashboardService dashboardService;
+    private final StackPane conteudo;
 
     public DashboardPane() {
         this.dashboardService = new DashboardService();
@@ -38,8 +46,42 @@ public class DashboardPane extends VBox {
         Label titulo = new Label("Dashboard - Visão Geral do Arquivo Histórico");
         titulo.getStyleClass().add("details-title");
 
-        // Carrega os dados do banco
-        List<Turma> turmas = dashboardService.getDadosCompletosDoBD();
+        conteudo = new StackPane();
+        VBox.setVgrow(conteudo, Priority.ALWAYS);
+        this.getChildren().addAll(titulo, conteudo);
+
+        carregarEmSegundoPlano();
+    }
+
+    private void carregarEmSegundoPlano() {
+        ProgressIndicator indicador = new ProgressIndicator();
+        Label lblCarregando = new Label("Carregando dados do arquivo histórico...");
+        VBox placeholder = new VBox(10, indicador, lblCarregando);
+        placeholder.setAlignment(Pos.CENTER);
+        conteudo.getChildren().setAll(placeholder);
+
+        // Só totais e contagens por turma, calculados no banco (e guardados no cache do serviço)
+        Task<DashboardService.DadosDoDashboard> tarefa = new Task<>() {
+            @Override
+            protected DashboardService.DadosDoDashboard call() throws Exception {
+                return dashboardService.carregarDados();
+            }
+        };
+        tarefa.setOnSucceeded(e -> conteudo.getChildren().setAll(createGrid(tarefa.getValue())));
+        tarefa.setOnFailed(e -> {
+            Throwable erro = tarefa.getException();
+            System.err.println("ERRO ao buscar estatísticas para o dashboard: " + erro.getMessage());
+            erro.printStackTrace();
+            conteudo.getChildren().setAll(new Label("Não foi possível carregar os dados do banco de dados: " + erro.getMessage()));
+        });
+
+        Thread thread = new Thread(tarefa, "dashboard-carregamento");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private GridPane createGrid(DashboardService.DadosDoDashboard dados) {
+        List<EstatisticasTurma> turmas = dados.turmas();
 
         // --- Layout Principal com GridPane para mais controle ---
         GridPane grid = new GridPane();
@@ -47,13 +89,13 @@ public class DashboardPane extends VBox {
         grid.setVgap(20);
 
         // --- Painel de Métricas (KPIs) ---
-        HBox kpiPane = createKpiPane(turmas);
+        HBox kpiPane = createKpiPane(turmas, dados.situacoesGerais());
         grid.add(kpiPane, 0, 0, 2, 1); // Ocupa 2 colunas na primeira linha
 
         // --- Painel de Gráficos ---
         PieChart pieChart = createPieChart(turmas);
         // Novo gráfico de barras empilhadas
-        StackedBarChart<String, Number> stackedBarChart = createStackedBarChart(turmas);
+        StackedBarChart<String, Number> stackedBarChart = createStackedBarChart(dados.situacoesPorTurma());
 
         grid.add(pieChart, 0, 1);
         grid.add(stackedBarChart, 1, 1);
@@ -62,18 +104,14 @@ public class DashboardPane extends VBox {
         GridPane.setHgrow(pieChart, Priority.SOMETIMES);
         GridPane.setHgrow(stackedBarChart, Priority.ALWAYS);
 
-        this.getChildren().addAll(titulo, grid);
+        return grid;
     }
 
-    private HBox createKpiPane(List<Turma> turmas) {
+    private HBox createKpiPane(List<EstatisticasTurma> turmas, Map<Situacao, Long> statsGerais) {
         int totalTurmas = turmas.size();
-        long totalAlunos = turmas.stream().mapToLong(t -> t.getAlunos().size()).sum();
-        long totalNotas = turmas.stream()
-                .flatMap(t -> t.getAlunos().stream())
-                .mapToLong(a -> a.getNotas().size())
-                .sum();
+        long totalAlunos = turmas.stream().mapToLong(EstatisticasTurma::alunos).sum();
+        long totalNotas = turmas.stream().mapToLong(EstatisticasTurma::notas).sum();
 
-        Map<Situacao, Long> statsGerais = dashboardService.getEstatisticasGeraisDeSituacao(turmas);
         long aprovados = statsGerais.getOrDefault(Situacao.APROVADO, 0L);
         long totalSituacoes = statsGerais.values().stream().mapToLong(Long::longValue).sum();
         double taxaAprovacao = (totalSituacoes == 0) ? 0 : ((double) aprovados / totalSituacoes) * 100;
@@ -101,13 +139,13 @@ public class DashboardPane extends VBox {
         return card;
     }
 
-    private PieChart createPieChart(List<Turma> turmas) {
+    private PieChart createPieChart(List<EstatisticasTurma> turmas) {
         PieChart pieChart = new PieChart();
         pieChart.setTitle("Distribuição de Alunos por Turma");
 
         ObservableList<PieChart.Data> pieChartData = FXCollections.observableArrayList();
-        for (Turma turma : turmas) {
-            pieChartData.add(new PieChart.Data(turma.getNomeTurma(), turma.getAlunos().size()));
+        for (EstatisticasTurma turma : turmas) {
+            pieChartData.add(new PieChart.Data(turma.nomeTurma(), turma.alunos()));
         }
         pieChart.setData(pieChartData);
         pieChart.setLegendVisible(true);
@@ -115,7 +153,7 @@ public class DashboardPane extends VBox {
 
         // Adiciona um tooltip para mostrar o valor ao passar o mouse
         pieChart.getData().forEach(data -> {
-            String percentage = String.format("%.1f%%", (data.getPieValue() / turmas.stream().mapToLong(t -> t.getAlunos().size()).sum()) * 100);
+            String percentage = String.format("%.1f%%", (data.getPieValue() / turmas.stream().mapToLong(EstatisticasTurma::alunos).sum()) * 100);
             javafx.scene.control.Tooltip tooltip = new javafx.scene.control.Tooltip(
                     String.format("%s: %d aluno(s) (%s)", data.getName(), (int) data.getPieValue(), percentage)
             );
@@ -125,7 +163,7 @@ public class DashboardPane extends VBox {
         return pieChart;
     }
 
-    private StackedBarChart<String, Number> createStackedBarChart(List<Turma> turmas) {
+    private StackedBarChart<String, Number> createStackedBarChart(Map<String, Map<Situacao, Long>> statsPorTurma) {
         CategoryAxis xAxis = new CategoryAxis();
         xAxis.setLabel("Turmas");
         NumberAxis yAxis = new NumberAxis();
@@ -135,9 +173,6 @@ public class DashboardPane extends VBox {
         barChart.setTitle("Desempenho por Turma");
         barChart.setLegendVisible(true);
 
-        // Obtém as estatísticas do serviço
-        Map<String, Map<Situacao, Long>> statsPorTurma = dashboardService.getEstatisticasPorTurma(turmas);
-
         XYChart.Series<String, Number> seriesAprovados = new XYChart.Series<>();
         seriesAprovados.setName("Aprovados");
         XYChart.Series<String, Number> seriesRecuperacao = new XYChart.Series<>();
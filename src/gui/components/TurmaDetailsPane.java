@@ -1,6 +1,8 @@
 package gui.components;
 
 import gui.viewmodel.AlunoNotaViewModel;
+import javafx.application.Platform;
+import javafx.beans.value.ObservableValue;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.geometry.Pos;
@@ -20,27 +22,48 @@ import javafx.scene.control.TableView;import javafx.scene.control.Alert;
 import javafx.scene.control.cell.TextFieldTableCell;
 import javafx.scene.layout.VBox;
 import javafx.scene.layout.HBox;
+import javafx.util.Callback;
 import javafx.util.converter.NumberStringConverter;
 import model.Aluno;
 import javafx.stage.FileChooser;
 import model.Disciplina;
+import model.NotaSlot;
 import model.Turma;
+import service.AvaliacaoService;
+import service.AvaliacaoTurma;
 import service.GerenciadorDeDados;
 
 import javafx.scene.Scene;
 import javafx.stage.Stage;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.io.File;
 import java.io.IOException;
-import java.util.stream.Collectors;
 
 /**
  * Painel que exibe os detalhes de uma turma, com abas para cada disciplina.
+ * O conteúdo de cada aba é montado na primeira vez em que ela é selecionada.
  */
 public class TurmaDetailsPane extends VBox {
 
+    // Acesso direto à propriedade de cada slot, resolvido uma vez e compartilhado por todas as colunas de nota.
+    private static final Map<NotaSlot, Callback<TableColumn.CellDataFeatures<AlunoNotaViewModel, Number>, ObservableValue<Number>>> VALORES_POR_SLOT =
+            new EnumMap<>(NotaSlot.class);
+    private static final Callback<TableColumn<AlunoNotaViewModel, Number>, TableCell<AlunoNotaViewModel, Number>> CELULA_DE_NOTA =
+            TextFieldTableCell.forTableColumn(new NumberStringConverter());
+
+    static {
+        for (NotaSlot slot : NotaSlot.values()) {
+            VALORES_POR_SLOT.put(slot, cellData -> cellData.getValue().notaProperty(slot));
+        }
+    }
+
     private final GerenciadorDeDados gerenciador;
     private final Turma turma;
+    private final Map<Tab, Disciplina> disciplinasPorAba = new LinkedHashMap<>();
 
     public TurmaDetailsPane(Turma turma, GerenciadorDeDados gerenciador) {
         this.turma = turma;
@@ -56,192 +79,219 @@ public class TurmaDetailsPane extends VBox {
 
         TabPane tabPaneDisciplinas = new TabPane();
 
-        // Cria uma aba para cada disciplina da turma
+        // Cria uma aba (ainda vazia) para cada disciplina da turma
         for (Disciplina disciplina : turma.getDisciplinas()) {
             Tab tab = new Tab(disciplina.getNomeDisciplina());
             tab.setClosable(false);
+            disciplinasPorAba.put(tab, disciplina);
+            tabPaneDisciplinas.getTabs().add(tab);
+        }
+
+        // O conteúdo de cada aba (tabela, colunas e ViewModels) só é montado quando ela é selecionada pela
+        // primeira vez: abrir a turma custa o mesmo que montar uma disciplina, não todas.
+        tabPaneDisciplinas.getSelectionModel().selectedItemProperty().addListener((obs, anterior, aba) -> montarConteudoDaAba(aba));
+        montarConteudoDaAba(tabPaneDisciplinas.getSelectionModel().getSelectedItem());
+
+        // Quando o painel sai da tela (outra turma foi selecionada), libera as tabelas montadas.
+        this.sceneProperty().addListener((obs, anterior, cena) -> {
+            if (cena == null) {
+                liberarConteudo();
+            } else {
+                montarConteudoDaAba(tabPaneDisciplinas.getSelectionModel().getSelectedItem());
+            }
+        });
+
+        this.getChildren().addAll(tituloTurma, tabPaneDisciplinas);
+    }
 
-            // --- Tabela de Alunos e Notas (movida para cima para estar no escopo dos botões) ---
-            TableView<AlunoNotaViewModel> tabelaAlunos = new TableView<>();
-            tabelaAlunos.setEditable(true); // Permite a edição
+    /**
+     * Monta o conteúdo da aba, se ainda não foi montado.
+     */
+    private void montarConteudoDaAba(Tab tab) {
+        if (tab != null && tab.getContent() == null) {
+            tab.setContent(criarConteudoDaAba(disciplinasPorAba.get(tab)));
+        }
+    }
 
-            // --- Barra de Botões ---
-            Button btnSalvar = new Button("Salvar Alterações");
-            btnSalvar.getStyleClass().add("button-save"); // Estilo específico para salvar
-            btnSalvar.setOnAction(e -> salvarAlteracoes());
+    /**
+     * Descarta o conteúdo de todas as abas; ele é montado de novo se a aba voltar a ser exibida.
+     */
+    private void liberarConteudo() {
+        for (Tab tab : disciplinasPorAba.keySet()) {
+            tab.setContent(null);
+        }
+    }
 
-            Button btnRelatorio = new Button("Gerar Relatório");
-            btnRelatorio.setOnAction(e -> {
+    /**
+     * Cria a tabela de alunos e notas da disciplina, com a barra de botões.
+     */
+    private VBox criarConteudoDaAba(Disciplina disciplina) {
+        // --- Tabela de Alunos e Notas (movida para cima para estar no escopo dos botões) ---
+        TableView<AlunoNotaViewModel> tabelaAlunos = new TableView<>();
+        tabelaAlunos.setEditable(true); // Permite a edição
+
+        // --- Barra de Botões ---
+        Button btnSalvar = new Button("Salvar Alterações");
+        btnSalvar.getStyleClass().add("button-save"); // Estilo específico para salvar
+        btnSalvar.setOnAction(e -> salvarAlteracoes());
+
+        Button btnRelatorio = new Button("Gerar Relatório");
+        btnRelatorio.setOnAction(e -> {
+            try {
+                String caminhoArquivo = gerenciador.salvarRelatorioMarkdown(turma, disciplina);
+                Alert alert = new Alert(Alert.AlertType.INFORMATION, "Relatório salvo com sucesso em:\n" + caminhoArquivo);
+                alert.setHeaderText(null);
+                alert.showAndWait();
+            } catch (IOException ex) {
+                ex.printStackTrace();
+                Alert alert = new Alert(Alert.AlertType.ERROR, "Ocorreu um erro ao salvar o relatório: " + ex.getMessage());
+                alert.setHeaderText("Falha ao Salvar");
+                alert.showAndWait();
+            }
+        });
+
+        Button btnExportarPDF = new Button("Exportar para PDF");
+        btnExportarPDF.setOnAction(e -> {
+            FileChooser fileChooser = new FileChooser();
+            fileChooser.setTitle("Salvar Relatório em PDF");
+            fileChooser.setInitialFileName("Relatorio_" + turma.getCodigoTurma() + "_" + disciplina.getCodigoDisciplina() + ".pdf");
+            fileChooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("PDF Files", "*.pdf"));
+
+            File file = fileChooser.showSaveDialog(getScene().getWindow());
+            if (file != null) {
                 try {
-                    String caminhoArquivo = gerenciador.salvarRelatorioMarkdown(turma, disciplina);
-                    Alert alert = new Alert(Alert.AlertType.INFORMATION, "Relatório salvo com sucesso em:\n" + caminhoArquivo);
+                    gerenciador.gerarRelatorioPDF(turma, disciplina, file);
+                    Alert alert = new Alert(Alert.AlertType.INFORMATION, "Relatório PDF gerado com sucesso!");
                     alert.setHeaderText(null);
                     alert.showAndWait();
                 } catch (IOException ex) {
                     ex.printStackTrace();
-                    Alert alert = new Alert(Alert.AlertType.ERROR, "Ocorreu um erro ao salvar o relatório: " + ex.getMessage());
-                    alert.setHeaderText("Falha ao Salvar");
+                    Alert alert = new Alert(Alert.AlertType.ERROR, "Ocorreu um erro ao gerar o arquivo PDF: " + ex.getMessage());
+                    alert.setHeaderText("Falha na Exportação");
                     alert.showAndWait();
                 }
-            });
-
-            Button btnExportarPDF = new Button("Exportar para PDF");
-            btnExportarPDF.setOnAction(e -> {
-                FileChooser fileChooser = new FileChooser();
-                fileChooser.setTitle("Salvar Relatório em PDF");
-                fileChooser.setInitialFileName("Relatorio_" + turma.getCodigoTurma() + "_" + disciplina.getCodigoDisciplina() + ".pdf");
-                fileChooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("PDF Files", "*.pdf"));
-
-                File file = fileChooser.showSaveDialog(getScene().getWindow());
-                if (file != null) {
-                    try {
-                        gerenciador.gerarRelatorioPDF(turma, disciplina, file);
-                        Alert alert = new Alert(Alert.AlertType.INFORMATION, "Relatório PDF gerado com sucesso!");
-                        alert.setHeaderText(null);
-                        alert.showAndWait();
-                    } catch (IOException ex) {
-                        ex.printStackTrace();
-                        Alert alert = new Alert(Alert.AlertType.ERROR, "Ocorreu um erro ao gerar o arquivo PDF: " + ex.getMessage());
-                        alert.setHeaderText("Falha na Exportação");
-                        alert.showAndWait();
-                    }
-                }
-            });
-
-            Button btnAnalise = new Button("Análise da Turma");
-            btnAnalise.setOnAction(e -> {
-                // Coleta os dados para o gráfico a partir dos ViewModels
-                ObservableList<AlunoNotaViewModel> items = tabelaAlunos.getItems();
-                long aprovados = items.stream().filter(vm -> vm.situacaoProperty().get().equals("APROVADO")).count();
-                long reprovados = items.stream().filter(vm -> vm.situacaoProperty().get().equals("REPROVADO")).count();
-                long recuperacao = items.stream().filter(vm -> vm.situacaoProperty().get().equals("RECUPERACAO_FINAL")).count();
-
-                exibirGraficoAnalise(aprovados, reprovados, recuperacao, disciplina.getNomeDisciplina());
-            });
-
-
-            HBox bottomBar = new HBox(10, btnAnalise, btnRelatorio, btnExportarPDF, btnSalvar); // Adiciona espaçamento e os dois botões
-            bottomBar.setAlignment(Pos.CENTER_RIGHT);
-            bottomBar.setPadding(new Insets(10, 0, 0, 0));
-
-            // Colunas de identificação
-            TableColumn<AlunoNotaViewModel, String> nomeCol = new TableColumn<>("Aluno");
-            nomeCol.setCellValueFactory(cellData -> cellData.getValue().nomeProperty());
-            nomeCol.setPrefWidth(220);
-
-            TableColumn<AlunoNotaViewModel, String> raCol = new TableColumn<>("RA");
-            raCol.setCellValueFactory(cellData -> cellData.getValue().raProperty());
-            raCol.setPrefWidth(100);
-
-            // Colunas de Notas (T1, T2, T3)
-            TableColumn<AlunoNotaViewModel, Number> n1t1Col = createEditableNotaColumn("T1-N1", "n1_t1");
-            TableColumn<AlunoNotaViewModel, Number> n2t1Col = createEditableNotaColumn("T1-N2", "n2_t1");
-            TableColumn<AlunoNotaViewModel, Number> n3t1Col = createEditableNotaColumn("T1-N3", "n3_t1");
-            TableColumn<AlunoNotaViewModel, Number> n1t2Col = createEditableNotaColumn("T2-N1", "n1_t2");
-            TableColumn<AlunoNotaViewModel, Number> n2t2Col = createEditableNotaColumn("T2-N2", "n2_t2");
-            TableColumn<AlunoNotaViewModel, Number> n3t2Col = createEditableNotaColumn("T2-N3", "n3_t2");
-            TableColumn<AlunoNotaViewModel, Number> n1t3Col = createEditableNotaColumn("T3-N1", "n1_t3");
-            TableColumn<AlunoNotaViewModel, Number> n2t3Col = createEditableNotaColumn("T3-N2", "n2_t3"); 
-            TableColumn<AlunoNotaViewModel, Number> n3t3Col = createEditableNotaColumn("T3-N3", "n3_t3");
-
-            // Colunas de Média e Situação
-            TableColumn<AlunoNotaViewModel, Number> mediaCol = new TableColumn<>("Média");
-            mediaCol.setCellValueFactory(cellData -> cellData.getValue().mediaFinalProperty()); 
-            mediaCol.setCellFactory(tc -> new TextFieldTableCell<>(new NumberStringConverter("0.00")));
-
-            TableColumn<AlunoNotaViewModel, String> situacaoCol = new TableColumn<>("Situação");
-            situacaoCol.setCellValueFactory(cellData -> cellData.getValue().situacaoProperty());
-            // Adiciona uma CellFactory para colorir o texto do status
-            situacaoCol.setCellFactory(column -> {
-                return new TableCell<AlunoNotaViewModel, String>() {
-                    @Override
-                    protected void updateItem(String item, boolean empty) {
-                        super.updateItem(item, empty);
-
-                        if (item == null || empty) {
-                            setText(null);
-                            getStyleClass().removeAll("status-aprovado", "status-reprovado", "status-recuperacao");
-                        } else {
-                            setText(item);
-                            getStyleClass().removeAll("status-aprovado", "status-reprovado", "status-recuperacao");
-
-                            if (item.equals("REPROVADO")) getStyleClass().add("status-reprovado");
-                            else if (item.equals("APROVADO")) getStyleClass().add("status-aprovado");
-                            else if (item.equals("RECUPERACAO_FINAL")) getStyleClass().add("status-recuperacao");
-                        }
-                    }
-                };
-            });
-
-            tabelaAlunos.getColumns().addAll(nomeCol, raCol, n1t1Col, n2t1Col, n3t1Col, n1t2Col, n2t2Col, n3t2Col, n1t3Col, n2t3Col, n3t3Col, mediaCol, situacaoCol);
-
-            // Adiciona colunas de recuperação APENAS para 8º e 9º ano
-            boolean isTurmaElegivel = turma.getNomeTurma().contains("8º ANO") || turma.getNomeTurma().contains("9º ANO");
-            if (isTurmaElegivel) {
-                TableColumn<AlunoNotaViewModel, Number> recT1Col = createEditableNotaColumn("T1-REC", "rec_t1");
-                TableColumn<AlunoNotaViewModel, Number> recT2Col = createEditableNotaColumn("T2-REC", "rec_t2");
-                TableColumn<AlunoNotaViewModel, Number> recT3Col = createEditableNotaColumn("T3-REC", "rec_t3");
-                // Adiciona as colunas de recuperação após as notas de cada trimestre
-                tabelaAlunos.getColumns().add(5, recT1Col);
-                tabelaAlunos.getColumns().add(9, recT2Col);
-                tabelaAlunos.getColumns().add(13, recT3Col);
             }
+        });
 
-            // Carrega os dados na tabela
-            List<AlunoNotaViewModel> viewModels = turma.getAlunos().stream()
-                    .map(aluno -> new AlunoNotaViewModel(aluno, disciplina, turma))
-                    .collect(Collectors.toList());
-            tabelaAlunos.setItems(FXCollections.observableArrayList(viewModels));
+        Button btnAnalise = new Button("Análise da Turma");
+        btnAnalise.setOnAction(e -> {
+            // Coleta os dados para o gráfico a partir dos ViewModels
+            ObservableList<AlunoNotaViewModel> items = tabelaAlunos.getItems();
+            long aprovados = items.stream().filter(vm -> vm.situacaoProperty().get().equals("APROVADO")).count();
+            long reprovados = items.stream().filter(vm -> vm.situacaoProperty().get().equals("REPROVADO")).count();
+            long recuperacao = items.stream().filter(vm -> vm.situacaoProperty().get().equals("RECUPERACAO_FINAL")).count();
 
-            VBox content = new VBox(10, new Label("Notas da disciplina:"), tabelaAlunos, bottomBar);
-            content.setPadding(new Insets(10));
-            
-            tab.setContent(content);
-            tabPaneDisciplinas.getTabs().add(tab);
+            exibirGraficoAnalise(aprovados, reprovados, recuperacao, disciplina.getNomeDisciplina());
+        });
+
+
+        HBox bottomBar = new HBox(10, btnAnalise, btnRelatorio, btnExportarPDF, btnSalvar); // Adiciona espaçamento e os dois botões
+        bottomBar.setAlignment(Pos.CENTER_RIGHT);
+        bottomBar.setPadding(new Insets(10, 0, 0, 0));
+
+        // Colunas de identificação
+        TableColumn<AlunoNotaViewModel, String> nomeCol = new TableColumn<>("Aluno");
+        nomeCol.setCellValueFactory(cellData -> cellData.getValue().nomeProperty());
+        nomeCol.setPrefWidth(220);
+
+        TableColumn<AlunoNotaViewModel, String> raCol = new TableColumn<>("RA");
+        raCol.setCellValueFactory(cellData -> cellData.getValue().raProperty());
+        raCol.setPrefWidth(100);
+
+        // Colunas de Média e Situação
+        TableColumn<AlunoNotaViewModel, Number> mediaCol = new TableColumn<>("Média");
+        mediaCol.setCellValueFactory(cellData -> cellData.getValue().mediaFinalProperty()); 
+        mediaCol.setCellFactory(tc -> new TextFieldTableCell<>(new NumberStringConverter("0.00")));
+
+        TableColumn<AlunoNotaViewModel, String> situacaoCol = new TableColumn<>("Situação");
+        situacaoCol.setCellValueFactory(cellData -> cellData.getValue().situacaoProperty());
+        // Adiciona uma CellFactory para colorir o texto do status
+        situacaoCol.setCellFactory(column -> {
+            return new TableCell<AlunoNotaViewModel, String>() {
+                @Override
+                protected void updateItem(String item, boolean empty) {
+                    super.updateItem(item, empty);
+
+                    if (item == null || empty) {
+                        setText(null);
+                        getStyleClass().removeAll("status-aprovado", "status-reprovado", "status-recuperacao");
+                    } else {
+                        setText(item);
+                        getStyleClass().removeAll("status-aprovado", "status-reprovado", "status-recuperacao");
+
+                        if (item.equals("REPROVADO")) getStyleClass().add("status-reprovado");
+                        else if (item.equals("APROVADO")) getStyleClass().add("status-aprovado");
+                        else if (item.equals("RECUPERACAO_FINAL")) getStyleClass().add("status-recuperacao");
+                    }
+                }
+            };
+        });
+
+        tabelaAlunos.getColumns().addAll(nomeCol, raCol);
+        // Colunas de Notas (T1, T2, T3), na ordem dos slots: as de recuperação ficam após as notas de cada
+        // trimestre e só entram quando a regra da disciplina prevê recuperação trimestral
+        boolean recuperacaoTrimestral = turma.getRegraAvaliacao(disciplina).isRecuperacaoTrimestral();
+        for (NotaSlot slot : NotaSlot.values()) {
+            if (slot.getTipo() != NotaSlot.Tipo.REC || recuperacaoTrimestral) {
+                tabelaAlunos.getColumns().add(createEditableNotaColumn(slot));
+            }
+        }
+        tabelaAlunos.getColumns().add(mediaCol);
+        tabelaAlunos.getColumns().add(situacaoCol);
+
+        // Carrega os dados na tabela (avaliando só esta disciplina)
+        AvaliacaoTurma avaliacao = new AvaliacaoService().avaliarTurma(turma, disciplina);
+        List<Aluno> alunos = avaliacao.getAlunos();
+        List<AlunoNotaViewModel> viewModels = new ArrayList<>(alunos.size());
+        for (int linha = 0; linha < alunos.size(); linha++) {
+            viewModels.add(new AlunoNotaViewModel(alunos.get(linha), disciplina, turma,
+                    avaliacao.getMediaFinal(linha, disciplina), avaliacao.getSituacao(linha, disciplina)));
         }
+        tabelaAlunos.setItems(FXCollections.observableArrayList(viewModels));
 
-        this.getChildren().addAll(tituloTurma, tabPaneDisciplinas);
+        VBox content = new VBox(10, new Label("Notas da disciplina:"), tabelaAlunos, bottomBar);
+        content.setPadding(new Insets(10));
+        return content;
     }
 
     /**
-     * Cria uma coluna de nota editável para a TableView.
+     * Cria uma coluna de nota editável para a TableView, ligada à nota do slot informado.
+     * A fábrica de valores e a de células são as mesmas para todas as tabelas (ver {@link #VALORES_POR_SLOT}).
      */
-    private TableColumn<AlunoNotaViewModel, Number> createEditableNotaColumn(String title, String propertyName) {
-        TableColumn<AlunoNotaViewModel, Number> col = new TableColumn<>(title);
-        
-        // Vincula a coluna à propriedade correta no ViewModel
-        col.setCellValueFactory(cellData -> {
-            try {
-                // Usa reflexão para obter a propriedade dinamicamente (ex: n1_t1Property())
-                return (javafx.beans.value.ObservableValue<Number>) AlunoNotaViewModel.class.getMethod(propertyName + "Property").invoke(cellData.getValue());
-            } catch (Exception e) {
-                e.printStackTrace();
-                return null;
-            }
-        });
+    private TableColumn<AlunoNotaViewModel, Number> createEditableNotaColumn(NotaSlot slot) {
+        TableColumn<AlunoNotaViewModel, Number> col = new TableColumn<>("T" + slot.getTrimestre() + "-" + slot.getTipo().name());
+
+        // Vincula a coluna à propriedade do slot no ViewModel
+        col.setCellValueFactory(VALORES_POR_SLOT.get(slot));
 
         // Usa um TextFieldTableCell para permitir a edição
-        col.setCellFactory(TextFieldTableCell.forTableColumn(new NumberStringConverter()));
+        col.setCellFactory(CELULA_DE_NOTA);
 
         // Define o que acontece quando a edição é confirmada (usuário pressiona Enter)
         col.setOnEditCommit(event -> {
-            AlunoNotaViewModel viewModel = event.getRowValue();
-            // Atualiza o valor na propriedade do ViewModel
-            ((javafx.beans.property.DoubleProperty) event.getTableColumn().getCellObservableValue(viewModel)).set(event.getNewValue().doubleValue());
-            // Recalcula a média e a situação
-            viewModel.recalcular();
+            // Atualiza a nota editada (propriedade e modelo) e recalcula a média e a situação
+            event.getRowValue().definirNota(slot, event.getNewValue().doubleValue());
         });
 
         return col;
     }
 
     private void salvarAlteracoes() {
-        gerenciador.salvarAlteracoesNotas();
-        Alert alert = new Alert(Alert.AlertType.INFORMATION);
-        alert.setTitle("Sucesso");
-        alert.setHeaderText(null);
-        alert.setContentText("Todas as alterações foram salvas com sucesso nos arquivos JSON!");
-        alert.showAndWait();
+        // A gravação acontece em segundo plano; o aviso é exibido na thread da UI quando ela terminar.
+        gerenciador.salvarAlteracoesNotas().whenComplete((ignorado, erro) -> Platform.runLater(() -> {
+            Alert alert;
+            if (erro == null) {
+                alert = new Alert(Alert.AlertType.INFORMATION);
+                alert.setTitle("Sucesso");
+                alert.setContentText("Todas as alterações foram salvas com sucesso nos arquivos JSON!");
+            } else {
+                alert = new Alert(Alert.AlertType.ERROR);
+                alert.setTitle("Erro");
+                alert.setContentText("Algumas alterações não puderam ser salvas e serão gravadas na próxima tentativa: " + erro.getMessage());
+            }
+            alert.setHeaderText(null);
+            alert.showAndWait();
+        }));
     }
 
     /**
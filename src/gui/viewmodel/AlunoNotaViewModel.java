@@ -6,6 +6,8 @@ import javafx.beans.property.SimpleStringProperty;
 import javafx.beans.property.StringProperty;
 import model.Aluno;
 import model.Disciplina;
+import model.NotaSlot;
+import model.RegraAvaliacao;
 import model.Turma;
 import model.Situacao;
 
@@ -17,66 +19,63 @@ public class AlunoNotaViewModel {
 
     private final Aluno aluno;
     private final Disciplina disciplina;
-    private final Turma turma;
+    private final RegraAvaliacao regra; // Resolvida uma vez por linha
 
     private final StringProperty nome;
     private final StringProperty ra;
-    private final DoubleProperty n1_t1, n2_t1, n3_t1;
-    private final DoubleProperty n1_t2, n2_t2, n3_t2;
-    private final DoubleProperty n1_t3, n2_t3, n3_t3;
-    private final DoubleProperty rec_t1, rec_t2, rec_t3;
+    // Uma propriedade por NotaSlot, indexada por ordinal(): as colunas acessam a nota sem reflexão.
+    private final DoubleProperty[] notas = new DoubleProperty[NotaSlot.values().length];
     private final DoubleProperty mediaFinal;
     private final StringProperty situacao;
 
     public AlunoNotaViewModel(Aluno aluno, Disciplina disciplina, Turma turma) {
+        this(aluno, disciplina, turma,
+                aluno.calcularMediaFinalAnual(disciplina.getNomeDisciplina(), turma.getRegraAvaliacao(disciplina)),
+                aluno.getSituacaoFinal(disciplina.getNomeDisciplina(), turma.getRegraAvaliacao(disciplina)));
+    }
+
+    /**
+     * Cria o ViewModel com média e situação já calculadas (ex: por uma avaliação da turma inteira).
+     */
+    public AlunoNotaViewModel(Aluno aluno, Disciplina disciplina, Turma turma, double mediaFinal, Situacao situacao) {
         this.aluno = aluno;
         this.disciplina = disciplina;
-        this.turma = turma;
+        this.regra = turma.getRegraAvaliacao(disciplina);
 
         this.nome = new SimpleStringProperty(aluno.getNome());
         this.ra = new SimpleStringProperty(aluno.getRa());
 
-        // Notas do Trimestre 1
-        this.n1_t1 = new SimpleDoubleProperty(aluno.getNotaPorDescricao(disciplina.getNomeDisciplina(), "T1 - N1"));
-        this.n2_t1 = new SimpleDoubleProperty(aluno.getNotaPorDescricao(disciplina.getNomeDisciplina(), "T1 - N2"));
-        this.n3_t1 = new SimpleDoubleProperty(aluno.getNotaPorDescricao(disciplina.getNomeDisciplina(), "T1 - N3"));
-
-        // Notas do Trimestre 2
-        this.n1_t2 = new SimpleDoubleProperty(aluno.getNotaPorDescricao(disciplina.getNomeDisciplina(), "T2 - N1"));
-        this.n2_t2 = new SimpleDoubleProperty(aluno.getNotaPorDescricao(disciplina.getNomeDisciplina(), "T2 - N2"));
-        this.n3_t2 = new SimpleDoubleProperty(aluno.getNotaPorDescricao(disciplina.getNomeDisciplina(), "T2 - N3"));
-
-        // Notas do Trimestre 3
-        this.n1_t3 = new SimpleDoubleProperty(aluno.getNotaPorDescricao(disciplina.getNomeDisciplina(), "T3 - N1"));
-        this.n2_t3 = new SimpleDoubleProperty(aluno.getNotaPorDescricao(disciplina.getNomeDisciplina(), "T3 - N2"));
-        this.n3_t3 = new SimpleDoubleProperty(aluno.getNotaPorDescricao(disciplina.getNomeDisciplina(), "T3 - N3"));
-
-        // Notas de Recuperação
-        this.rec_t1 = new SimpleDoubleProperty(aluno.getNotaPorDescricao(disciplina.getNomeDisciplina(), "T1 - REC"));
-        this.rec_t2 = new SimpleDoubleProperty(aluno.getNotaPorDescricao(disciplina.getNomeDisciplina(), "T2 - REC"));
-        this.rec_t3 = new SimpleDoubleProperty(aluno.getNotaPorDescricao(disciplina.getNomeDisciplina(), "T3 - REC"));
+        for (NotaSlot slot : NotaSlot.values()) {
+            this.notas[slot.ordinal()] = new SimpleDoubleProperty(aluno.getNota(disciplina.getNomeDisciplina(), slot));
+        }
 
         // Média e Situação
-        this.mediaFinal = new SimpleDoubleProperty(aluno.calcularMediaFinalAnual(disciplina.getNomeDisciplina(), turma));
-        this.situacao = new SimpleStringProperty(aluno.getSituacaoFinal(disciplina.getNomeDisciplina(), turma).toString());
+        this.mediaFinal = new SimpleDoubleProperty(mediaFinal);
+        this.situacao = new SimpleStringProperty(situacao.toString());
     }
 
     // --- Getters para as propriedades (necessário para a TableView) ---
 
     public StringProperty nomeProperty() { return nome; }
     public StringProperty raProperty() { return ra; }
-    public DoubleProperty n1_t1Property() { return n1_t1; }
-    public DoubleProperty n2_t1Property() { return n2_t1; }
-    public DoubleProperty n3_t1Property() { return n3_t1; }
-    public DoubleProperty n1_t2Property() { return n1_t2; }
-    public DoubleProperty n2_t2Property() { return n2_t2; }
-    public DoubleProperty n3_t2Property() { return n3_t2; }
-    public DoubleProperty n1_t3Property() { return n1_t3; }
-    public DoubleProperty n2_t3Property() { return n2_t3; }
-    public DoubleProperty n3_t3Property() { return n3_t3; }
-    public DoubleProperty rec_t1Property() { return rec_t1; }
-    public DoubleProperty rec_t2Property() { return rec_t2; }
-    public DoubleProperty rec_t3Property() { return rec_t3; }
+
+    /**
+     * Propriedade da nota no slot informado (notas regulares e recuperações dos três trimestres).
+     */
+    public DoubleProperty notaProperty(NotaSlot slot) { return notas[slot.ordinal()]; }
+
+    public DoubleProperty n1_t1Property() { return notaProperty(NotaSlot.T1_N1); }
+    public DoubleProperty n2_t1Property() { return notaProperty(NotaSlot.T1_N2); }
+    public DoubleProperty n3_t1Property() { return notaProperty(NotaSlot.T1_N3); }
+    public DoubleProperty n1_t2Property() { return notaProperty(NotaSlot.T2_N1); }
+    public DoubleProperty n2_t2Property() { return notaProperty(NotaSlot.T2_N2); }
+    public DoubleProperty n3_t2Property() { return notaProperty(NotaSlot.T2_N3); }
+    public DoubleProperty n1_t3Property() { return notaProperty(NotaSlot.T3_N1); }
+    public DoubleProperty n2_t3Property() { return notaProperty(NotaSlot.T3_N2); }
+    public DoubleProperty n3_t3Property() { return notaProperty(NotaSlot.T3_N3); }
+    public DoubleProperty rec_t1Property() { return notaProperty(NotaSlot.T1_REC); }
+    public DoubleProperty rec_t2Property() { return notaProperty(NotaSlot.T2_REC); }
+    public DoubleProperty rec_t3Property() { return notaProperty(NotaSlot.T3_REC); }
     public DoubleProperty mediaFinalProperty() { return mediaFinal; }
     public StringProperty situacaoProperty() { return situacao; }
 
@@ -90,25 +89,22 @@ public class AlunoNotaViewModel {
         return disciplina;
     }
 
-    // --- Recalcula a média e situação (útil após a edição de uma nota) ---
+    // --- Edição de nota ---
+
+    /**
+     * Grava a nota editada no modelo (só o slot alterado, para que apenas o arquivo daquele trimestre
+     * fique pendente de gravação) e recalcula média e situação.
+     */
+    public void definirNota(NotaSlot slot, double valor) {
+        notas[slot.ordinal()].set(valor);
+        aluno.adicionarOuAtualizarNota(disciplina.getNomeDisciplina(), slot, valor);
+        recalcular();
+    }
+
+    // --- Recalcula a média e situação a partir do modelo (útil após a edição de uma nota) ---
 
     public void recalcular() {
-        // Atualiza o modelo de dados subjacente
-        aluno.adicionarOuAtualizarNota(disciplina.getNomeDisciplina(), "T1 - N1", n1_t1.get());
-        aluno.adicionarOuAtualizarNota(disciplina.getNomeDisciplina(), "T1 - N2", n2_t1.get());
-        aluno.adicionarOuAtualizarNota(disciplina.getNomeDisciplina(), "T1 - N3", n3_t1.get());
-        aluno.adicionarOuAtualizarNota(disciplina.getNomeDisciplina(), "T2 - N1", n1_t2.get());
-        aluno.adicionarOuAtualizarNota(disciplina.getNomeDisciplina(), "T2 - N2", n2_t2.get());
-        aluno.adicionarOuAtualizarNota(disciplina.getNomeDisciplina(), "T2 - N3", n3_t2.get());
-        aluno.adicionarOuAtualizarNota(disciplina.getNomeDisciplina(), "T3 - N1", n1_t3.get());
-        aluno.adicionarOuAtualizarNota(disciplina.getNomeDisciplina(), "T3 - N2", n2_t3.get());
-        aluno.adicionarOuAtualizarNota(disciplina.getNomeDisciplina(), "T3 - N3", n3_t3.get());
-        aluno.adicionarOuAtualizarNota(disciplina.getNomeDisciplina(), "T1 - REC", rec_t1.get());
-        aluno.adicionarOuAtualizarNota(disciplina.getNomeDisciplina(), "T2 - REC", rec_t2.get());
-        aluno.adicionarOuAtualizarNota(disciplina.getNomeDisciplina(), "T3 - REC", rec_t3.get());
-
-        // Atualiza as propriedades da UI
-        mediaFinal.set(aluno.calcularMediaFinalAnual(disciplina.getNomeDisciplina(), turma));
-        situacao.set(aluno.getSituacaoFinal(disciplina.getNomeDisciplina(), turma).toString());
+        mediaFinal.set(aluno.calcularMediaFinalAnual(disciplina.getNomeDisciplina(), regra));
+        situacao.set(aluno.getSituacaoFinal(disciplina.getNomeDisciplina(), regra).toString());
     }
-}
\ No newline at end of file
+}
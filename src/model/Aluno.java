@@ -1,26 +1,32 @@
 package model;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.TreeMap;
 
 public class Aluno {
     private int id; // ID do banco de dados
     private String nome;
     private String ra;
     private String email;
-    private List<Nota> notas;
 
-    // Constantes para as médias de corte
-    public static final double MEDIA_APROVACAO = 6.0;
-    public static final double MEDIA_RECUPERACAO = 4.0;
+    // Notas indexadas por disciplina (sem diferenciar maiúsculas/minúsculas) e por posição fixa
+    // (trimestre x N1/N2/N3/REC), evitando buscas lineares e comparações de strings a cada acesso.
+    private final Map<String, NotasDaDisciplina> notasPorDisciplina = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+
+    // Avisado quando uma nota muda de fato (usado para salvar apenas os arquivos alterados).
+    private ObservadorDeNotas observadorDeNotas;
+
+    // Constantes para as médias de corte da regra padrão (ver RegraAvaliacao)
+    public static final double MEDIA_APROVACAO = RegraAvaliacao.MEDIA_APROVACAO_PADRAO;
+    public static final double MEDIA_RECUPERACAO = RegraAvaliacao.MEDIA_RECUPERACAO_PADRAO;
 
     public Aluno(String nome, String ra) {
         this.nome = nome;
         this.ra = ra;
         this.email = null;
-        this.notas = new ArrayList<>();
     }
 
     // Getters e Setters para o ID
@@ -28,54 +34,35 @@ public class Aluno {
     public void setId(int id) { this.id = id; }
 
     public void adicionarNota(Nota nota) {
-        this.notas.add(nota);
+        adicionarOuAtualizarNota(nota.getDisciplina(), nota.getSlot(), nota.getValor());
     }
 
-    public double getNotaPorDescricao(String disciplina, String descricao) {
-        return notas.stream()
-                .filter(n -> n.getDisciplina().equalsIgnoreCase(disciplina) && n.getDescricao().equals(descricao))
-                .findFirst()
-                .map(Nota::getValor)
-                .orElse(0.0);
+    /**
+     * Retorna a nota de um slot (ex: {@link NotaSlot#T2_REC}), ou 0.0 se não houver nota.
+     */
+    public double getNota(String disciplina, NotaSlot slot) {
+        NotasDaDisciplina notasDisciplina = notasPorDisciplina.get(disciplina);
+        return notasDisciplina == null ? 0.0 : notasDisciplina.valor(slot.indice());
     }
 
-    public void adicionarOuAtualizarNota(String disciplina, String descricao, double valor) {
-        // Tenta encontrar uma nota existente para atualizar
-        Optional<Nota> notaExistente = notas.stream()
-                .filter(n -> n.getDisciplina().equalsIgnoreCase(disciplina) && n.getDescricao().equals(descricao))
-                .findFirst();
-
-        if (notaExistente.isPresent()) {
-            // Atualiza a nota existente
-            notaExistente.get().setValor(valor);
-        } else {
-            // Adiciona uma nova nota se não existir
-            adicionarNota(new Nota(valor, disciplina, descricao));
+    public void adicionarOuAtualizarNota(String disciplina, NotaSlot slot, double valor) {
+        boolean alterada = notasDaDisciplina(disciplina).definir(slot.indice(), valor);
+        if (alterada && observadorDeNotas != null) {
+            observadorDeNotas.notaAlterada(this, disciplina, slot);
         }
     }
 
-    public double calcularMediaTrimestral(String disciplina, int trimestre, Turma turma) {
-        List<Nota> notasDoTrimestre = notas.stream()
-                .filter(n -> n.getDisciplina().equalsIgnoreCase(disciplina) && n.getDescricao().startsWith("T" + trimestre))
-                .filter(n -> !n.getDescricao().contains("REC")) // Exclui a nota de recuperação do cálculo inicial
-                .collect(Collectors.toList());
-
-        if (notasDoTrimestre.isEmpty()) {
-            return 0.0;
-        }
-
-        double mediaOriginal = notasDoTrimestre.stream().mapToDouble(Nota::getValor).sum() / notasDoTrimestre.size();
-
-        // Lógica da Recuperação para 8º e 9º ano
-        boolean isAlunoElegivel = turma.getNomeTurma().contains("8º ANO") || turma.getNomeTurma().contains("9º ANO");
+    public void setObservadorDeNotas(ObservadorDeNotas observadorDeNotas) {
+        this.observadorDeNotas = observadorDeNotas;
+    }
 
-        if (isAlunoElegivel && mediaOriginal < MEDIA_APROVACAO) {
-            double notaRecuperacao = getNotaPorDescricao(disciplina, "T" + trimestre + " - REC");
-            // A média do trimestre se torna a maior nota entre a média original e a recuperação.
-            return Math.max(mediaOriginal, notaRecuperacao);
-        }
+    public double calcularMediaTrimestral(String disciplina, int trimestre, Turma turma) {
+        return calcularMediaTrimestral(disciplina, trimestre, turma.getRegraAvaliacao(disciplina));
+    }
 
-        return mediaOriginal;
+    public double calcularMediaTrimestral(String disciplina, int trimestre, RegraAvaliacao regra) {
+        NotasDaDisciplina notasDisciplina = avaliar(disciplina, regra);
+        return notasDisciplina == null ? 0.0 : notasDisciplina.mediasTrimestrais[trimestre - 1];
     }
 
     public double calcularMediaFinalAnual(String disciplina) {
@@ -86,24 +73,33 @@ public class Aluno {
     }
 
     public double calcularMediaFinalAnual(String disciplina, Turma turma) {
-        double somaDasMediasTrimestrais = 0;
-        somaDasMediasTrimestrais += calcularMediaTrimestral(disciplina, 1, turma);
-        somaDasMediasTrimestrais += calcularMediaTrimestral(disciplina, 2, turma);
-        somaDasMediasTrimestrais += calcularMediaTrimestral(disciplina, 3, turma);
-        
-        return somaDasMediasTrimestrais / 3.0;
+        return calcularMediaFinalAnual(disciplina, turma.getRegraAvaliacao(disciplina));
+    }
+
+    public double calcularMediaFinalAnual(String disciplina, RegraAvaliacao regra) {
+        NotasDaDisciplina notasDisciplina = avaliar(disciplina, regra);
+        return notasDisciplina == null ? 0.0 : notasDisciplina.mediaFinal;
     }
 
     public Situacao getSituacaoFinal(String disciplina, Turma turma) {
-        double mediaFinal = calcularMediaFinalAnual(disciplina, turma);
-
-        if (mediaFinal >= MEDIA_APROVACAO) {
-            return Situacao.APROVADO;
-        } else if (mediaFinal >= MEDIA_RECUPERACAO) {
-            return Situacao.RECUPERACAO_FINAL;
-        } else {
-            return Situacao.REPROVADO;
+        return getSituacaoFinal(disciplina, turma.getRegraAvaliacao(disciplina));
+    }
+
+    public Situacao getSituacaoFinal(String disciplina, RegraAvaliacao regra) {
+        NotasDaDisciplina notasDisciplina = avaliar(disciplina, regra);
+        return notasDisciplina == null ? regra.situacaoParaMedia(0.0) : notasDisciplina.situacao;
+    }
+
+    /**
+     * Retorna as notas da disciplina com médias e situação já calculadas pela regra informada.
+     * O resultado fica em cache até que uma nota da disciplina seja alterada.
+     */
+    private NotasDaDisciplina avaliar(String disciplina, RegraAvaliacao regra) {
+        NotasDaDisciplina notasDisciplina = notasPorDisciplina.get(disciplina);
+        if (notasDisciplina != null && notasDisciplina.regraAvaliada != regra) {
+            notasDisciplina.recalcular(regra);
         }
+        return notasDisciplina;
     }
 
     // Getters e Setters
@@ -113,7 +109,117 @@ public class Aluno {
     public void setRa(String ra) { this.ra = ra; }
     public String getEmail() { return email; }
     public void setEmail(String email) { this.email = email; }
-    public List<Nota> getNotas() { return notas; }
+
+    /**
+     * Visão somente leitura das notas do aluno, montada a partir do armazenamento indexado.
+     * Para alterar notas use {@link #adicionarNota(Nota)} ou {@link #adicionarOuAtualizarNota}.
+     */
+    public List<Nota> getNotas() {
+        List<Nota> notas = new ArrayList<>();
+        for (NotasDaDisciplina notasDisciplina : notasPorDisciplina.values()) {
+            for (int i = 0; i < notasDisciplina.valores.length; i++) {
+                if (notasDisciplina.possui(i)) {
+                    notas.add(new Nota(notasDisciplina.valores[i], notasDisciplina.disciplina, NotaSlot.porIndice(i)));
+                }
+            }
+        }
+        return Collections.unmodifiableList(notas);
+    }
+
+    public int getQuantidadeNotas() {
+        int quantidade = 0;
+        for (NotasDaDisciplina notasDisciplina : notasPorDisciplina.values()) {
+            quantidade += Integer.bitCount(notasDisciplina.presentes);
+        }
+        return quantidade;
+    }
+
+    // --- Armazenamento indexado ---
+
+    /**
+     * Copia as notas da disciplina para a linha {@code linha} de uma {@link MatrizNotas}.
+     */
+    void copiarNotasParaColunas(String disciplina, double[][] valores, double[][] presencas, int linha) {
+        NotasDaDisciplina notasDisciplina = notasPorDisciplina.get(disciplina);
+        if (notasDisciplina == null) {
+            return;
+        }
+        for (int slot = 0; slot < notasDisciplina.valores.length; slot++) {
+            if (notasDisciplina.possui(slot)) {
+                valores[slot][linha] = notasDisciplina.valores[slot];
+                presencas[slot][linha] = 1.0;
+            }
+        }
+    }
+
+    private NotasDaDisciplina notasDaDisciplina(String disciplina) {
+        return notasPorDisciplina.computeIfAbsent(disciplina, NotasDaDisciplina::new);
+    }
+
+    /**
+     * Notas de uma disciplina indexadas por {@link NotaSlot#indice()}. {@code presentes} marca quais posições têm valor.
+     * Também guarda as médias e a situação calculadas, invalidadas a cada alteração de nota.
+     */
+    private static final class NotasDaDisciplina {
+        private final String disciplina;
+        private final double[] valores = new double[NotaSlot.TOTAL_TRIMESTRES * NotaSlot.TIPOS_POR_TRIMESTRE];
+        private int presentes;
+
+        // Cache da avaliação. A regra (imutável) usada no cálculo faz parte da chave.
+        private final double[] mediasTrimestrais = new double[NotaSlot.TOTAL_TRIMESTRES];
+        private double mediaFinal;
+        private Situacao situacao;
+        private RegraAvaliacao regraAvaliada;
+
+        private NotasDaDisciplina(String disciplina) {
+            this.disciplina = disciplina;
+        }
+
+        private boolean possui(int indice) {
+            return (presentes & (1 << indice)) != 0;
+        }
+
+        private double valor(int indice) {
+            return possui(indice) ? valores[indice] : 0.0;
+        }
+
+        /**
+         * @return true se o slot estava vazio ou tinha outro valor.
+         */
+        private boolean definir(int indice, double valor) {
+            if (possui(indice) && Double.compare(valores[indice], valor) == 0) {
+                return false; // Nada mudou: mantém o cache e não avisa o observador
+            }
+            valores[indice] = valor;
+            presentes |= 1 << indice;
+            regraAvaliada = null; // Invalida o cache da avaliação
+            return true;
+        }
+
+        private void recalcular(RegraAvaliacao regra) {
+            for (int trimestre = 1; trimestre <= NotaSlot.TOTAL_TRIMESTRES; trimestre++) {
+                mediasTrimestrais[trimestre - 1] = calcularMediaTrimestral(trimestre, regra);
+            }
+            mediaFinal = regra.calcularMediaFinal(mediasTrimestrais[0], mediasTrimestrais[1], mediasTrimestrais[2]);
+            situacao = regra.situacaoParaMedia(mediaFinal);
+            regraAvaliada = regra;
+        }
+
+        private double calcularMediaTrimestral(int trimestre, RegraAvaliacao regra) {
+            // Soma apenas as notas regulares (N1..N3) presentes; a recuperação fica fora do cálculo inicial.
+            int base = NotaSlot.of(trimestre, NotaSlot.Tipo.N1).indice();
+            int indiceRecuperacao = NotaSlot.of(trimestre, NotaSlot.Tipo.REC).indice();
+            double soma = 0;
+            int quantidade = 0;
+            for (int i = base; i < indiceRecuperacao; i++) {
+                if (possui(i)) {
+                    soma += valores[i];
+                    quantidade++;
+                }
+            }
+            return regra.calcularMediaTrimestral(soma, quantidade, valor(indiceRecuperacao));
+        }
+    }
 
     @Override
     public String toString() {
@@ -121,7 +227,7 @@ public class Aluno {
                 "nome='" + nome + '\'' +
                 ", ra='" + ra + '\'' +
                 ", email='" + (email != null ? email : "N/A") + '\'' +
-                ", notas=" + notas +
+                ", notas=" + getNotas() +
                 '}';
     }
 }
@@ -4,6 +4,7 @@ public class Disciplina {
     private String codigoDisciplina;
     private String nomeDisciplina;
     private String tipo; // "ANUAL" ou "MODULAR"
+    private RegraAvaliacao regraAvaliacao; // null = usa a regra da turma
 
     public Disciplina(String codigoDisciplina, String nomeDisciplina, String tipo) {
         this.codigoDisciplina = codigoDisciplina;
@@ -35,6 +36,14 @@ public class Disciplina {
         this.tipo = tipo;
     }
 
+    public RegraAvaliacao getRegraAvaliacao() {
+        return regraAvaliacao;
+    }
+
+    public void setRegraAvaliacao(RegraAvaliacao regraAvaliacao) {
+        this.regraAvaliacao = regraAvaliacao;
+    }
+
     @Override
     public String toString() {
         return "Disciplina{" +
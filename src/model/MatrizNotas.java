@@ -0,0 +1,145 @@
+package model;
+
+import java.util.List;
+
+/**
+ * Representação colunar das notas de uma disciplina para todos os alunos de uma turma.
+ * Cada slot (T1-N1 ... T3-REC) vira um array contíguo com uma posição por aluno, o que permite
+ * calcular médias e situações da turma inteira em laços simples sobre memória contígua.
+ */
+public final class MatrizNotas {
+
+    private static final int TOTAL_SLOTS = NotaSlot.TOTAL_TRIMESTRES * NotaSlot.TIPOS_POR_TRIMESTRE;
+    private static final Situacao[] SITUACOES = Situacao.values();
+
+    private final int linhas;
+    private final RegraAvaliacao regra;
+
+    // valores[slot][linha] é 0.0 quando não há nota; presencas[slot][linha] é 1.0 quando há nota e 0.0 caso contrário.
+    private final double[][] valores = new double[TOTAL_SLOTS][];
+    private final double[][] presencas = new double[TOTAL_SLOTS][];
+
+    // Resultados da avaliação
+    private final double[][] mediasTrimestrais = new double[NotaSlot.TOTAL_TRIMESTRES][];
+    private final double[] mediasFinais;
+    private final byte[] situacoes;
+    private boolean avaliada;
+
+    private MatrizNotas(int linhas, RegraAvaliacao regra) {
+        this.linhas = linhas;
+        this.regra = regra;
+        for (int slot = 0; slot < TOTAL_SLOTS; slot++) {
+            valores[slot] = new double[linhas];
+            presencas[slot] = new double[linhas];
+        }
+        for (int trimestre = 0; trimestre < NotaSlot.TOTAL_TRIMESTRES; trimestre++) {
+            mediasTrimestrais[trimestre] = new double[linhas];
+        }
+        this.mediasFinais = new double[linhas];
+        this.situacoes = new byte[linhas];
+    }
+
+    /**
+     * Monta a matriz da disciplina com uma linha por aluno, na mesma ordem de {@link Turma#getAlunos()}.
+     */
+    public static MatrizNotas de(Turma turma, Disciplina disciplina) {
+        return de(turma, List.of(disciplina))[0];
+    }
+
+    /**
+     * Monta as matrizes de várias disciplinas percorrendo os alunos da turma uma única vez.
+     * @return Uma matriz por disciplina, na mesma ordem da lista recebida.
+     */
+    public static MatrizNotas[] de(Turma turma, List<Disciplina> disciplinas) {
+        MatrizNotas[] matrizes = new MatrizNotas[disciplinas.size()];
+        String[] nomes = new String[disciplinas.size()];
+        for (int d = 0; d < matrizes.length; d++) {
+            Disciplina disciplina = disciplinas.get(d);
+            matrizes[d] = new MatrizNotas(turma.getAlunos().size(), turma.getRegraAvaliacao(disciplina));
+            nomes[d] = disciplina.getNomeDisciplina();
+        }
+        int linha = 0;
+        for (Aluno aluno : turma.getAlunos()) {
+            for (int d = 0; d < matrizes.length; d++) {
+                aluno.copiarNotasParaColunas(nomes[d], matrizes[d].valores, matrizes[d].presencas, linha);
+            }
+            linha++;
+        }
+        return matrizes;
+    }
+
+    public int getLinhas() {
+        return linhas;
+    }
+
+    public double getMediaTrimestral(int linha, int trimestre) {
+        avaliar();
+        return mediasTrimestrais[trimestre - 1][linha];
+    }
+
+    public double getMediaFinal(int linha) {
+        avaliar();
+        return mediasFinais[linha];
+    }
+
+    public Situacao getSituacao(int linha) {
+        avaliar();
+        return SITUACOES[situacoes[linha]];
+    }
+
+    /**
+     * Conta as situações da turma, indexadas por {@link Situacao#ordinal()}.
+     */
+    public long[] contarSituacoes() {
+        avaliar();
+        long[] contagem = new long[SITUACOES.length];
+        for (int i = 0; i < linhas; i++) {
+            contagem[situacoes[i]]++;
+        }
+        return contagem;
+    }
+
+    /**
+     * Calcula médias trimestrais, média final e situação de todas as linhas de uma vez.
+     * Os laços não têm desvios dependentes de dados além de seleções simples, o que permite
+     * ao JIT vetorizá-los.
+     */
+    private void avaliar() {
+        if (avaliada) {
+            return;
+        }
+        boolean recuperacaoTrimestral = regra.isRecuperacaoTrimestral();
+        double mediaAprovacao = regra.getMediaAprovacao();
+        double mediaRecuperacao = regra.getMediaRecuperacao();
+        double peso1 = regra.getPesoTrimestre(1), peso2 = regra.getPesoTrimestre(2), peso3 = regra.getPesoTrimestre(3);
+        double somaPesos = regra.getSomaPesos();
+
+        for (int trimestre = 1; trimestre <= NotaSlot.TOTAL_TRIMESTRES; trimestre++) {
+            int n1 = NotaSlot.of(trimestre, NotaSlot.Tipo.N1).indice();
+            double[] v1 = valores[n1], v2 = valores[n1 + 1], v3 = valores[n1 + 2], rec = valores[n1 + 3];
+            double[] p1 = presencas[n1], p2 = presencas[n1 + 1], p3 = presencas[n1 + 2];
+            double[] medias = mediasTrimestrais[trimestre - 1];
+
+            for (int i = 0; i < linhas; i++) {
+                // Notas ausentes valem 0.0, então a soma só considera as presentes.
+                double soma = v1[i] + v2[i] + v3[i];
+                double quantidade = p1[i] + p2[i] + p3[i];
+                double media = soma / Math.max(quantidade, 1.0);
+                // A média do trimestre se torna a maior nota entre a média original e a recuperação
+                // (apenas quando o trimestre tem alguma nota regular, como em Aluno).
+                boolean usaRecuperacao = recuperacaoTrimestral && quantidade > 0 && media < mediaAprovacao;
+                medias[i] = usaRecuperacao ? Math.max(media, rec[i]) : media;
+            }
+        }
+
+        double[] m1 = mediasTrimestrais[0], m2 = mediasTrimestrais[1], m3 = mediasTrimestrais[2];
+        for (int i = 0; i < linhas; i++) {
+            double mediaFinal = (peso1 * m1[i] + peso2 * m2[i] + peso3 * m3[i]) / somaPesos;
+            mediasFinais[i] = mediaFinal;
+            situacoes[i] = (byte) (mediaFinal >= mediaAprovacao ? Situacao.APROVADO.ordinal()
+                    : mediaFinal >= mediaRecuperacao ? Situacao.RECUPERACAO_FINAL.ordinal()
+                    : Situacao.REPROVADO.ordinal());
+        }
+        avaliada = true;
+    }
+}
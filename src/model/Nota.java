@@ -3,12 +3,12 @@ package model;
 public class Nota {
     private double valor;
     private String disciplina;
-    private String descricao;
+    private NotaSlot slot;
 
-    public Nota(double valor, String disciplina, String descricao) {
+    public Nota(double valor, String disciplina, NotaSlot slot) {
         this.valor = valor;
         this.disciplina = disciplina;
-        this.descricao = descricao;
+        this.slot = slot;
     }
 
     public double getValor() {
@@ -27,12 +27,16 @@ public class Nota {
         this.disciplina = disciplina;
     }
 
-    public String getDescricao() {
-        return descricao;
+    public NotaSlot getSlot() {
+        return slot;
+    }
+
+    public void setSlot(NotaSlot slot) {
+        this.slot = slot;
     }
 
-    public void setDescricao(String descricao) {
-        this.descricao = descricao;
+    public String getDescricao() {
+        return slot.getDescricao();
     }
 
     @Override
@@ -40,7 +44,7 @@ public class Nota {
         return "Nota{" +
                 "valor=" + valor +
                 ", disciplina='" + disciplina + '\'' +
-                ", descricao='" + descricao + '\'' +
+                ", descricao='" + slot + '\'' +
                 '}';
     }
 }
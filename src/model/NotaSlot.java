@@ -0,0 +1,109 @@
+package model;
+
+/**
+ * Posição de uma nota no ano letivo: trimestre (1 a 3) e tipo (N1, N2, N3 ou REC).
+ * A descrição textual ("T1 - N1", "T3 - REC") só é usada na fronteira com arquivos e banco de dados.
+ */
+public enum NotaSlot {
+    T1_N1(1, Tipo.N1), T1_N2(1, Tipo.N2), T1_N3(1, Tipo.N3), T1_REC(1, Tipo.REC),
+    T2_N1(2, Tipo.N1), T2_N2(2, Tipo.N2), T2_N3(2, Tipo.N3), T2_REC(2, Tipo.REC),
+    T3_N1(3, Tipo.N1), T3_N2(3, Tipo.N2), T3_N3(3, Tipo.N3), T3_REC(3, Tipo.REC);
+
+    /**
+     * Tipo da nota dentro de um trimestre.
+     */
+    public enum Tipo { N1, N2, N3, REC }
+
+    public static final int TOTAL_TRIMESTRES = 3;
+    public static final int TIPOS_POR_TRIMESTRE = 4;
+
+    private static final NotaSlot[] VALORES = values();
+
+    private final int trimestre;
+    private final Tipo tipo;
+    private final String descricao;
+
+    NotaSlot(int trimestre, Tipo tipo) {
+        this.trimestre = trimestre;
+        this.tipo = tipo;
+        this.descricao = "T" + trimestre + " - " + tipo.name();
+    }
+
+    public static NotaSlot of(int trimestre, Tipo tipo) {
+        return VALORES[(trimestre - 1) * TIPOS_POR_TRIMESTRE + tipo.ordinal()];
+    }
+
+    public static NotaSlot porIndice(int indice) {
+        return VALORES[indice];
+    }
+
+    /**
+     * Inverso de {@link #getCodigo()}.
+     * @return O slot, ou null se o código não corresponder a nenhum slot.
+     */
+    public static NotaSlot porCodigo(int codigo) {
+        int trimestre = codigo / 10;
+        int tipo = codigo % 10 - 1;
+        if (trimestre < 1 || trimestre > TOTAL_TRIMESTRES || tipo < 0 || tipo >= TIPOS_POR_TRIMESTRE) {
+            return null;
+        }
+        return of(trimestre, Tipo.values()[tipo]);
+    }
+
+    /**
+     * Converte descrições no formato "T1 - N1" / "T3 - REC" para o slot correspondente.
+     * @return O slot, ou null se a descrição não estiver no formato esperado.
+     */
+    public static NotaSlot fromDescricao(String descricao) {
+        if (descricao == null || descricao.length() < 7 || descricao.charAt(0) != 'T' || !descricao.startsWith(" - ", 2)) {
+            return null;
+        }
+        int trimestre = descricao.charAt(1) - '0';
+        if (trimestre < 1 || trimestre > TOTAL_TRIMESTRES) {
+            return null;
+        }
+        for (Tipo tipo : Tipo.values()) {
+            String nomeTipo = tipo.name();
+            if (descricao.length() == 5 + nomeTipo.length() && descricao.startsWith(nomeTipo, 5)) {
+                return of(trimestre, tipo);
+            }
+        }
+        return null;
+    }
+
+    public int getTrimestre() {
+        return trimestre;
+    }
+
+    public Tipo getTipo() {
+        return tipo;
+    }
+
+    public boolean isRecuperacao() {
+        return tipo == Tipo.REC;
+    }
+
+    /**
+     * Posição do slot no intervalo [0, 12), útil para indexar arrays.
+     */
+    public int indice() {
+        return ordinal();
+    }
+
+    public String getDescricao() {
+        return descricao;
+    }
+
+    /**
+     * Código compacto gravado no banco de dados: trimestre * 10 + tipo (11 = T1 - N1, ..., 34 = T3 - REC).
+     * Não depende da ordem das constantes do enum, então é seguro persistir.
+     */
+    public int getCodigo() {
+        return trimestre * 10 + tipo.ordinal() + 1;
+    }
+
+    @Override
+    public String toString() {
+        return descricao;
+    }
+}
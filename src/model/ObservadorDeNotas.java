@@ -0,0 +1,10 @@
+package model;
+
+/**
+ * Recebe os avisos de alteração de notas de um {@link Aluno}.
+ * Só é chamado quando o valor de um slot realmente muda (ou quando um slot vazio passa a ter nota).
+ */
+@FunctionalInterface
+public interface ObservadorDeNotas {
+    void notaAlterada(Aluno aluno, String disciplina, NotaSlot slot);
+}
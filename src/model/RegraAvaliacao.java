@@ -0,0 +1,131 @@
+package model;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Regra de avaliação aplicada a uma turma ou disciplina: política de recuperação trimestral,
+ * médias de corte e pesos dos trimestres na média final.
+ * É imutável, então pode ser resolvida uma única vez e compartilhada entre todos os cálculos.
+ */
+public final class RegraAvaliacao {
+
+    public static final double MEDIA_APROVACAO_PADRAO = 6.0;
+    public static final double MEDIA_RECUPERACAO_PADRAO = 4.0;
+
+    /** Regra padrão: sem recuperação trimestral, cortes 6.0/4.0 e trimestres com o mesmo peso. */
+    public static final RegraAvaliacao PADRAO = new RegraAvaliacao(false, MEDIA_APROVACAO_PADRAO, MEDIA_RECUPERACAO_PADRAO, null);
+
+    /** Regra padrão com recuperação trimestral (usada pelo 8º e 9º ano). */
+    public static final RegraAvaliacao PADRAO_COM_RECUPERACAO = new RegraAvaliacao(true, MEDIA_APROVACAO_PADRAO, MEDIA_RECUPERACAO_PADRAO, null);
+
+    /** Trechos do nome da turma que a tornam elegível à recuperação trimestral na regra padrão. */
+    public static final List<String> TURMAS_COM_RECUPERACAO = List.of("8º ANO", "9º ANO");
+
+    private final boolean recuperacaoTrimestral;
+    private final double mediaAprovacao;
+    private final double mediaRecuperacao;
+    private final double[] pesosTrimestres;
+    private final double somaPesos;
+
+    /**
+     * @param pesosTrimestres Um peso por trimestre, ou null para pesos iguais.
+     */
+    public RegraAvaliacao(boolean recuperacaoTrimestral, double mediaAprovacao, double mediaRecuperacao, double[] pesosTrimestres) {
+        if (pesosTrimestres == null) {
+            pesosTrimestres = new double[NotaSlot.TOTAL_TRIMESTRES];
+            Arrays.fill(pesosTrimestres, 1.0);
+        }
+        if (pesosTrimestres.length != NotaSlot.TOTAL_TRIMESTRES) {
+            throw new IllegalArgumentException("São necessários " + NotaSlot.TOTAL_TRIMESTRES + " pesos de trimestre, recebidos " + pesosTrimestres.length);
+        }
+        double soma = 0;
+        for (double peso : pesosTrimestres) {
+            if (peso < 0) {
+                throw new IllegalArgumentException("Pesos de trimestre não podem ser negativos: " + Arrays.toString(pesosTrimestres));
+            }
+            soma += peso;
+        }
+        if (soma <= 0) {
+            throw new IllegalArgumentException("A soma dos pesos de trimestre deve ser positiva: " + Arrays.toString(pesosTrimestres));
+        }
+        this.recuperacaoTrimestral = recuperacaoTrimestral;
+        this.mediaAprovacao = mediaAprovacao;
+        this.mediaRecuperacao = mediaRecuperacao;
+        this.pesosTrimestres = pesosTrimestres.clone();
+        this.somaPesos = soma;
+    }
+
+    /**
+     * Regra usada quando a configuração não define uma: recuperação trimestral apenas para 8º e 9º ano.
+     */
+    public static RegraAvaliacao padraoParaTurma(String nomeTurma) {
+        if (nomeTurma != null) {
+            for (String trecho : TURMAS_COM_RECUPERACAO) {
+                if (nomeTurma.contains(trecho)) {
+                    return PADRAO_COM_RECUPERACAO;
+                }
+            }
+        }
+        return PADRAO;
+    }
+
+    /**
+     * Média do trimestre a partir das notas regulares presentes e da nota de recuperação.
+     */
+    public double calcularMediaTrimestral(double somaNotas, int quantidadeNotas, double notaRecuperacao) {
+        if (quantidadeNotas == 0) {
+            return 0.0;
+        }
+        double mediaOriginal = somaNotas / quantidadeNotas;
+        if (recuperacaoTrimestral && mediaOriginal < mediaAprovacao) {
+            // A média do trimestre se torna a maior nota entre a média original e a recuperação.
+            return Math.max(mediaOriginal, notaRecuperacao);
+        }
+        return mediaOriginal;
+    }
+
+    public double calcularMediaFinal(double mediaT1, double mediaT2, double mediaT3) {
+        return (pesosTrimestres[0] * mediaT1 + pesosTrimestres[1] * mediaT2 + pesosTrimestres[2] * mediaT3) / somaPesos;
+    }
+
+    public Situacao situacaoParaMedia(double mediaFinal) {
+        if (mediaFinal >= mediaAprovacao) {
+            return Situacao.APROVADO;
+        } else if (mediaFinal >= mediaRecuperacao) {
+            return Situacao.RECUPERACAO_FINAL;
+        } else {
+            return Situacao.REPROVADO;
+        }
+    }
+
+    public boolean isRecuperacaoTrimestral() {
+        return recuperacaoTrimestral;
+    }
+
+    public double getMediaAprovacao() {
+        return mediaAprovacao;
+    }
+
+    public double getMediaRecuperacao() {
+        return mediaRecuperacao;
+    }
+
+    public double getPesoTrimestre(int trimestre) {
+        return pesosTrimestres[trimestre - 1];
+    }
+
+    public double getSomaPesos() {
+        return somaPesos;
+    }
+
+    @Override
+    public String toString() {
+        return "RegraAvaliacao{" +
+                "recuperacaoTrimestral=" + recuperacaoTrimestral +
+                ", mediaAprovacao=" + mediaAprovacao +
+                ", mediaRecuperacao=" + mediaRecuperacao +
+                ", pesosTrimestres=" + Arrays.toString(pesosTrimestres) +
+                '}';
+    }
+}
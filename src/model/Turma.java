@@ -9,6 +9,8 @@ public class Turma {
     private String nomeTurma;
     private List<Disciplina> disciplinas;
     private List<Aluno> alunos;
+    private RegraAvaliacao regraAvaliacao; // Regra configurada; null = regra padrão derivada do nome
+    private RegraAvaliacao regraPadrao;
 
     public Turma(String codigoTurma, String nomeTurma) {
         this.codigoTurma = codigoTurma;
@@ -43,6 +45,44 @@ public class Turma {
 
     public void setNomeTurma(String nomeTurma) {
         this.nomeTurma = nomeTurma;
+        this.regraPadrao = null; // A regra padrão depende do nome
+    }
+
+    /**
+     * Regra de avaliação da turma: a configurada, ou a padrão resolvida uma vez a partir do nome.
+     */
+    public RegraAvaliacao getRegraAvaliacao() {
+        if (regraAvaliacao != null) {
+            return regraAvaliacao;
+        }
+        if (regraPadrao == null) {
+            regraPadrao = RegraAvaliacao.padraoParaTurma(nomeTurma);
+        }
+        return regraPadrao;
+    }
+
+    public void setRegraAvaliacao(RegraAvaliacao regraAvaliacao) {
+        this.regraAvaliacao = regraAvaliacao;
+    }
+
+    /**
+     * Regra efetiva de uma disciplina: a da própria disciplina, se configurada, ou a da turma.
+     */
+    public RegraAvaliacao getRegraAvaliacao(Disciplina disciplina) {
+        return disciplina.getRegraAvaliacao() != null ? disciplina.getRegraAvaliacao() : getRegraAvaliacao();
+    }
+
+    /**
+     * Regra efetiva de uma disciplina buscada pelo nome. Prefira resolver a regra uma vez com
+     * {@link #getRegraAvaliacao(Disciplina)} quando o objeto Disciplina estiver disponível.
+     */
+    public RegraAvaliacao getRegraAvaliacao(String nomeDisciplina) {
+        for (Disciplina disciplina : disciplinas) {
+            if (disciplina.getRegraAvaliacao() != null && disciplina.getNomeDisciplina().equalsIgnoreCase(nomeDisciplina)) {
+                return disciplina.getRegraAvaliacao();
+            }
+        }
+        return getRegraAvaliacao();
     }
 
     public List<Disciplina> getDisciplinas() {
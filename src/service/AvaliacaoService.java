@@ -0,0 +1,37 @@
+package service;
+
+import model.Disciplina;
+import model.MatrizNotas;
+import model.Turma;
+
+import java.util.List;
+
+/**
+ * Serviço que avalia turmas inteiras de uma vez.
+ * Percorre os alunos da turma uma única vez e calcula médias e situações de todas as
+ * disciplinas pedidas sobre a representação colunar ({@link MatrizNotas}).
+ */
+public class AvaliacaoService {
+
+    /**
+     * Avalia todas as disciplinas da turma.
+     */
+    public AvaliacaoTurma avaliarTurma(Turma turma) {
+        return avaliarTurma(turma, turma.getDisciplinas());
+    }
+
+    /**
+     * Avalia uma única disciplina da turma.
+     */
+    public AvaliacaoTurma avaliarTurma(Turma turma, Disciplina disciplina) {
+        return avaliarTurma(turma, List.of(disciplina));
+    }
+
+    /**
+     * Avalia as disciplinas informadas da turma.
+     */
+    public AvaliacaoTurma avaliarTurma(Turma turma, List<Disciplina> disciplinas) {
+        List<Disciplina> copia = List.copyOf(disciplinas);
+        return new AvaliacaoTurma(turma, copia, MatrizNotas.de(turma, copia));
+    }
+}
@@ -0,0 +1,84 @@
+package service;
+
+import model.Aluno;
+import model.Disciplina;
+import model.MatrizNotas;
+import model.Situacao;
+import model.Turma;
+
+import java.util.List;
+
+/**
+ * Resultado da avaliação de uma turma: para cada aluno (linha) e disciplina avaliada,
+ * as médias trimestrais, a média final e a situação.
+ * As linhas seguem a ordem de {@link Turma#getAlunos()} no momento da avaliação.
+ */
+public class AvaliacaoTurma {
+
+    private final Turma turma;
+    private final List<Aluno> alunos;
+    private final List<Disciplina> disciplinas;
+    private final MatrizNotas[] matrizes;
+
+    AvaliacaoTurma(Turma turma, List<Disciplina> disciplinas, MatrizNotas[] matrizes) {
+        this.turma = turma;
+        this.alunos = List.copyOf(turma.getAlunos());
+        this.disciplinas = disciplinas;
+        this.matrizes = matrizes;
+    }
+
+    public Turma getTurma() {
+        return turma;
+    }
+
+    public List<Aluno> getAlunos() {
+        return alunos;
+    }
+
+    public List<Disciplina> getDisciplinas() {
+        return disciplinas;
+    }
+
+    public double getMediaTrimestral(int linha, Disciplina disciplina, int trimestre) {
+        return matriz(disciplina).getMediaTrimestral(linha, trimestre);
+    }
+
+    public double getMediaFinal(int linha, Disciplina disciplina) {
+        return matriz(disciplina).getMediaFinal(linha);
+    }
+
+    public Situacao getSituacao(int linha, Disciplina disciplina) {
+        return matriz(disciplina).getSituacao(linha);
+    }
+
+    /**
+     * Conta as situações de uma disciplina, indexadas por {@link Situacao#ordinal()}.
+     */
+    public long[] contarSituacoes(Disciplina disciplina) {
+        return matriz(disciplina).contarSituacoes();
+    }
+
+    /**
+     * Soma as situações de todas as disciplinas avaliadas, indexadas por {@link Situacao#ordinal()}.
+     */
+    public long[] contarSituacoes() {
+        long[] contagem = new long[Situacao.values().length];
+        for (MatrizNotas matriz : matrizes) {
+            long[] contagemDisciplina = matriz.contarSituacoes();
+            for (int i = 0; i < contagem.length; i++) {
+                contagem[i] += contagemDisciplina[i];
+            }
+        }
+        return contagem;
+    }
+
+    private MatrizNotas matriz(Disciplina disciplina) {
+        // Poucas disciplinas por turma: a busca por identidade é mais barata que um mapa.
+        for (int d = 0; d < matrizes.length; d++) {
+            if (disciplinas.get(d) == disciplina) {
+                return matrizes[d];
+            }
+        }
+        throw new IllegalArgumentException("Disciplina não avaliada: " + disciplina.getNomeDisciplina());
+    }
+}
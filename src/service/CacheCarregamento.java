@@ -0,0 +1,233 @@
+package service;
+
+import model.Aluno;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Snapshot binário do resultado da leitura dos arquivos JSON de alunos e de notas.
+ * Cada arquivo é identificado pelo caminho relativo à pasta 'data' e validado pela data de modificação
+ * e pelo tamanho: se nada mudou, o conteúdo vem do snapshot; se mudou, apenas aquele arquivo é relido do JSON.
+ * Os métodos de leitura podem ser chamados de várias threads ao mesmo tempo.
+ */
+final class CacheCarregamento {
+
+    private static final int MAGICO = 0x4E4F5441; // "NOTA"
+    private static final int VERSAO = 1;
+    private static final byte TIPO_ALUNOS = 1;
+    private static final byte TIPO_NOTAS = 2;
+
+    /**
+     * Lê o conteúdo de um arquivo JSON quando ele não está no snapshot ou mudou.
+     */
+    @FunctionalInterface
+    interface LeitorArquivo<T> {
+        T ler() throws IOException;
+    }
+
+    private final Path diretorioDados;
+    private final Path arquivoSnapshot;
+
+    // Entradas do snapshot anterior (somente leitura durante o carregamento) e as usadas nesta carga.
+    private final Map<String, Entrada> anteriores = new HashMap<>();
+    private final Map<String, Entrada> atuais = new ConcurrentHashMap<>();
+    private final AtomicInteger acertos = new AtomicInteger();
+    private final AtomicInteger falhas = new AtomicInteger();
+
+    CacheCarregamento(String dataDirectoryPath) {
+        this.diretorioDados = Path.of(dataDirectoryPath).toAbsolutePath().normalize();
+        this.arquivoSnapshot = diretorioDados.resolve(".cache").resolve("carregamento.bin");
+        lerSnapshot();
+    }
+
+    List<Aluno> lerAlunos(File arquivo, LeitorArquivo<List<Aluno>> leitorJson) throws IOException {
+        String chave = chave(arquivo);
+        long modificacao = arquivo.lastModified();
+        long tamanho = arquivo.length();
+        Entrada entrada = anteriores.get(chave);
+        if (entrada != null && entrada.valida(TIPO_ALUNOS, modificacao, tamanho)) {
+            atuais.put(chave, entrada);
+            acertos.incrementAndGet();
+            // O modelo é mutável, então cada carga recebe objetos Aluno novos.
+            List<Aluno> alunos = new ArrayList<>(entrada.ras.length);
+            for (int i = 0; i < entrada.ras.length; i++) {
+                alunos.add(new Aluno(entrada.nomes[i], entrada.ras[i]));
+            }
+            return alunos;
+        }
+        falhas.incrementAndGet();
+        List<Aluno> alunos = leitorJson.ler();
+        if (alunos != null) {
+            String[] nomes = new String[alunos.size()];
+            String[] ras = new String[alunos.size()];
+            for (int i = 0; i < nomes.length; i++) {
+                nomes[i] = alunos.get(i).getNome();
+                ras[i] = alunos.get(i).getRa();
+            }
+            atuais.put(chave, new Entrada(TIPO_ALUNOS, modificacao, tamanho, nomes, ras, null));
+        }
+        return alunos;
+    }
+
+    LeitorJsonNotas.NotasDoArquivo lerNotas(File arquivo, LeitorArquivo<LeitorJsonNotas.NotasDoArquivo> leitorJson) throws IOException {
+        String chave = chave(arquivo);
+        long modificacao = arquivo.lastModified();
+        long tamanho = arquivo.length();
+        Entrada entrada = anteriores.get(chave);
+        if (entrada != null && entrada.valida(TIPO_NOTAS, modificacao, tamanho)) {
+            atuais.put(chave, entrada);
+            acertos.incrementAndGet();
+            return entrada.notas; // Imutável depois de lido, pode ser compartilhado.
+        }
+        falhas.incrementAndGet();
+        LeitorJsonNotas.NotasDoArquivo notas = leitorJson.ler();
+        if (notas != null) {
+            atuais.put(chave, new Entrada(TIPO_NOTAS, modificacao, tamanho, null, null, notas));
+        }
+        return notas;
+    }
+
+    int getAcertos() {
+        return acertos.get();
+    }
+
+    int getFalhas() {
+        return falhas.get();
+    }
+
+    /**
+     * Grava o snapshot com os arquivos usados nesta carga, se algo mudou em relação ao anterior.
+     */
+    void salvar() {
+        if (falhas.get() == 0 && atuais.size() == anteriores.size()) {
+            return;
+        }
+        Path temporario = arquivoSnapshot.resolveSibling(arquivoSnapshot.getFileName() + ".tmp");
+        try {
+            Files.createDirectories(arquivoSnapshot.getParent());
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporario)))) {
+                out.writeInt(MAGICO);
+                out.writeInt(VERSAO);
+                out.writeInt(atuais.size());
+                for (Map.Entry<String, Entrada> item : atuais.entrySet()) {
+                    out.writeUTF(item.getKey());
+                    item.getValue().escrever(out);
+                }
+            }
+            try {
+                Files.move(temporario, arquivoSnapshot, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporario, arquivoSnapshot, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            // O snapshot é apenas uma otimização: na falha, a próxima carga lê os JSONs.
+            System.err.printf("AVISO: Não foi possível gravar o cache de carregamento '%s': %s%n", arquivoSnapshot, e.getMessage());
+        }
+    }
+
+    private void lerSnapshot() {
+        if (!Files.isRegularFile(arquivoSnapshot)) {
+            return;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(arquivoSnapshot)))) {
+            if (in.readInt() != MAGICO || in.readInt() != VERSAO) {
+                return; // Formato antigo: será regravado na próxima carga.
+            }
+            int quantidade = in.readInt();
+            for (int i = 0; i < quantidade; i++) {
+                String chave = in.readUTF();
+                anteriores.put(chave, Entrada.ler(in));
+            }
+        } catch (IOException e) {
+            // Snapshot corrompido ou incompleto: ignora e relê tudo do JSON.
+            anteriores.clear();
+            System.err.printf("AVISO: Cache de carregamento inválido, os arquivos JSON serão relidos (%s).%n", e.getMessage());
+        }
+    }
+
+    private String chave(File arquivo) {
+        return diretorioDados.relativize(arquivo.toPath().toAbsolutePath().normalize()).toString().replace('\\', '/');
+    }
+
+    private static void escreverTexto(DataOutputStream out, String texto) throws IOException {
+        out.writeBoolean(texto != null);
+        if (texto != null) {
+            out.writeUTF(texto);
+        }
+    }
+
+    private static String lerTexto(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static final class Entrada {
+        private final byte tipo;
+        private final long modificacao;
+        private final long tamanho;
+        private final String[] nomes;
+        private final String[] ras;
+        private final LeitorJsonNotas.NotasDoArquivo notas;
+
+        private Entrada(byte tipo, long modificacao, long tamanho, String[] nomes, String[] ras, LeitorJsonNotas.NotasDoArquivo notas) {
+            this.tipo = tipo;
+            this.modificacao = modificacao;
+            this.tamanho = tamanho;
+            this.nomes = nomes;
+            this.ras = ras;
+            this.notas = notas;
+        }
+
+        private boolean valida(byte tipoEsperado, long modificacaoAtual, long tamanhoAtual) {
+            return tipo == tipoEsperado && modificacao == modificacaoAtual && tamanho == tamanhoAtual;
+        }
+
+        private void escrever(DataOutputStream out) throws IOException {
+            out.writeByte(tipo);
+            out.writeLong(modificacao);
+            out.writeLong(tamanho);
+            if (tipo == TIPO_ALUNOS) {
+                out.writeInt(ras.length);
+                for (int i = 0; i < ras.length; i++) {
+                    escreverTexto(out, nomes[i]);
+                    escreverTexto(out, ras[i]);
+                }
+            } else {
+                notas.escrever(out);
+            }
+        }
+
+        private static Entrada ler(DataInputStream in) throws IOException {
+            byte tipo = in.readByte();
+            long modificacao = in.readLong();
+            long tamanho = in.readLong();
+            if (tipo == TIPO_ALUNOS) {
+                int quantidade = in.readInt();
+                String[] nomes = new String[quantidade];
+                String[] ras = new String[quantidade];
+                for (int i = 0; i < quantidade; i++) {
+                    nomes[i] = lerTexto(in);
+                    ras[i] = lerTexto(in);
+                }
+                return new Entrada(tipo, modificacao, tamanho, nomes, ras, null);
+            } else if (tipo == TIPO_NOTAS) {
+                return new Entrada(tipo, modificacao, tamanho, null, null, LeitorJsonNotas.NotasDoArquivo.ler(in));
+            }
+            throw new IOException("Tipo de entrada desconhecido: " + tipo);
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package service;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import dto.NotaDTO;
+import model.Aluno;
+import model.NotaSlot;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Incorpora os segmentos selados do {@link DiarioDeNotas} aos arquivos {@code notas_json}.
+ * Trabalha só com os arquivos (não toca no modelo em memória), então pode rodar na thread de gravação.
+ * Cada arquivo afetado é lido, recebe os valores mais recentes do diário e é regravado de forma atômica;
+ * os segmentos só são apagados se todos os arquivos forem gravados.
+ */
+final class CompactadorDiario {
+
+    private static final Type TIPO_LISTA_NOTA_DTO = new TypeToken<ArrayList<NotaDTO>>(){}.getType();
+
+    private final DiarioDeNotas diario;
+    private final String dataDirectoryPath;
+    private final Gson gsonSaida;
+
+    CompactadorDiario(DiarioDeNotas diario, String dataDirectoryPath, Gson gsonSaida) {
+        this.diario = diario;
+        this.dataDirectoryPath = dataDirectoryPath;
+        this.gsonSaida = gsonSaida;
+    }
+
+    /**
+     * Sincronizado para não rodar ao mesmo tempo que uma carga dos arquivos (ver GerenciadorDeDados#carregar).
+     */
+    synchronized void compactar() throws IOException {
+        List<Path> segmentos = diario.selarSegmentos();
+        if (segmentos.isEmpty()) {
+            return;
+        }
+        List<DiarioDeNotas.Registro> registros = diario.ler(segmentos);
+
+        // Arquivo -> RA -> valores por tipo (NaN = não alterado). O último registro de cada slot vence.
+        Map<Path, Map<String, double[]>> alteracoesPorArquivo = new LinkedHashMap<>();
+        Map<Path, String> turmaDoArquivo = new HashMap<>();
+        for (DiarioDeNotas.Registro registro : registros) {
+            Path arquivo = Path.of(dataDirectoryPath, "notas_json", GerenciadorDeDados.nomeArquivoNotas(
+                    registro.codigoTurma(), registro.codigoDisciplina(), registro.slot().getTrimestre()));
+            turmaDoArquivo.put(arquivo, registro.codigoTurma());
+            double[] valores = alteracoesPorArquivo.computeIfAbsent(arquivo, a -> new LinkedHashMap<>())
+                    .computeIfAbsent(registro.ra(), ra -> novoConjuntoDeValores());
+            valores[registro.slot().getTipo().ordinal()] = registro.valor();
+        }
+
+        IOException erro = null;
+        for (Map.Entry<Path, Map<String, double[]>> item : alteracoesPorArquivo.entrySet()) {
+            try {
+                incorporar(item.getKey(), turmaDoArquivo.get(item.getKey()), item.getValue());
+            } catch (IOException e) {
+                erro = e;
+                System.err.printf("AVISO: Não foi possível compactar o diário em '%s': %s%n", item.getKey().getFileName(), e.getMessage());
+            }
+        }
+        if (erro != null) {
+            throw erro; // Os segmentos ficam para a próxima compactação (reaplicar valores absolutos é seguro).
+        }
+        diario.remover(segmentos);
+        System.out.printf("Diário compactado: %d alteração(ões) em %d arquivo(s) de notas.%n", registros.size(), alteracoesPorArquivo.size());
+    }
+
+    private void incorporar(Path arquivo, String codigoTurma, Map<String, double[]> alteracoes) throws IOException {
+        List<NotaDTO> notas = null;
+        if (Files.exists(arquivo)) {
+            try (Reader reader = Files.newBufferedReader(arquivo, StandardCharsets.UTF_8)) {
+                notas = gsonSaida.fromJson(reader, TIPO_LISTA_NOTA_DTO);
+            }
+        }
+        if (notas == null) {
+            notas = new ArrayList<>();
+        }
+        Map<String, NotaDTO> notasPorRa = new HashMap<>();
+        for (NotaDTO dto : notas) {
+            notasPorRa.putIfAbsent(dto.getRa(), dto);
+        }
+
+        Map<String, String> nomesDaTurma = null;
+        for (Map.Entry<String, double[]> alteracao : alteracoes.entrySet()) {
+            NotaDTO dto = notasPorRa.get(alteracao.getKey());
+            if (dto == null) {
+                // Aluno ainda sem linha neste arquivo: cria a linha com o nome do cadastro da turma.
+                if (nomesDaTurma == null) {
+                    nomesDaTurma = lerNomesDaTurma(codigoTurma);
+                }
+                dto = new NotaDTO();
+                dto.setNome(nomesDaTurma.get(alteracao.getKey()));
+                dto.setRa(alteracao.getKey());
+                dto.setNm1("");
+                dto.setNm2("");
+                dto.setNm3("");
+                dto.setRecuperacao("");
+                dto.setTotalFaltas("");
+                notas.add(dto);
+                notasPorRa.put(dto.getRa(), dto);
+            }
+            double[] valores = alteracao.getValue();
+            // Mesmo formato de String.valueOf(double) usado no salvamento completo.
+            if (!Double.isNaN(valores[NotaSlot.Tipo.N1.ordinal()])) dto.setNm1(String.valueOf(valores[NotaSlot.Tipo.N1.ordinal()]));
+            if (!Double.isNaN(valores[NotaSlot.Tipo.N2.ordinal()])) dto.setNm2(String.valueOf(valores[NotaSlot.Tipo.N2.ordinal()]));
+            if (!Double.isNaN(valores[NotaSlot.Tipo.N3.ordinal()])) dto.setNm3(String.valueOf(valores[NotaSlot.Tipo.N3.ordinal()]));
+            if (!Double.isNaN(valores[NotaSlot.Tipo.REC.ordinal()])) dto.setRecuperacao(String.valueOf(valores[NotaSlot.Tipo.REC.ordinal()]));
+        }
+        PersistenciaAssincrona.gravarAtomicamente(arquivo, gsonSaida.toJson(notas).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Map<String, String> lerNomesDaTurma(String codigoTurma) {
+        Map<String, String> nomes = new HashMap<>();
+        File arquivo = new File(dataDirectoryPath + File.separator + "turmas" + File.separator + codigoTurma + ".json");
+        try (Reader reader = new BufferedReader(new FileReader(arquivo))) {
+            List<Aluno> alunos = LeitorJsonNotas.lerAlunos(reader);
+            if (alunos != null) {
+                for (Aluno aluno : alunos) {
+                    nomes.putIfAbsent(aluno.getRa(), aluno.getNome());
+                }
+            }
+        } catch (IOException e) {
+            System.err.printf("AVISO: Cadastro da turma '%s' não encontrado ao compactar o diário.%n", codigoTurma);
+        }
+        return nomes;
+    }
+
+    private static double[] novoConjuntoDeValores() {
+        double[] valores = new double[NotaSlot.TIPOS_POR_TRIMESTRE];
+        Arrays.fill(valores, Double.NaN);
+        return valores;
+    }
+}
@@ -1,116 +1,111 @@
 package service;
 
 import dao.ConexaoBD;
-import dao.DisciplinaDAO;
-import dao.TurmaDAO;
-import model.Aluno;
-import model.Disciplina;
+import dao.EstatisticasDAO;
+import dao.EstatisticasDAO.EstatisticasTurma;
+import dao.VersaoDadosDAO;
 import model.Situacao;
-import model.Turma;
 
 import java.time.LocalDate;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.function.Function;
-import java.util.stream.Collectors;
 
 /**
  * Serviço para buscar dados agregados do banco de dados para o Dashboard.
+ * <p>
+ * Os dados já agregados ficam em cache na memória ({@link #carregarDados()}), compartilhado entre todas as
+ * instâncias. A cada abertura do Dashboard só a versão dos dados ({@link VersaoDadosDAO}) é lida do banco:
+ * enquanto ela não mudar (a sincronização e a reconstrução do resumo a incrementam, mesmo rodando em outro
+ * processo), o cache é usado sem refazer as consultas.
  */
 public class DashboardService {
 
     /**
-     * Busca todas as turmas e seus respectivos alunos do banco de dados.
-     * @return Uma lista de objetos Turma, populada com seus alunos.
+     * Tudo o que o Dashboard exibe, já agregado.
+     * @param versaoDosDados          Versão do banco lida antes das consultas (ver {@link VersaoDadosDAO}).
+     * @param incluiDisciplinasAnuais Se as disciplinas anuais entraram na contagem (depende do mês da consulta).
      */
-    public List<Turma> getDadosCompletosDoBD() {
-        List<Turma> turmas = null;
-        try (Connection conn = ConexaoBD.conectar()) {
-            // Instancia os DAOs com a conexão
-            TurmaDAO turmaDAO = new TurmaDAO(conn);
-            dao.AlunoDAO alunoDAO = new dao.AlunoDAO(conn); // Adicionado
-            DisciplinaDAO disciplinaDAO = new DisciplinaDAO(conn); // Adicionado
-
-            // Busca todas as turmas
-            turmas = turmaDAO.buscarTodas();
+    public record DadosDoDashboard(long versaoDosDados, boolean incluiDisciplinasAnuais, List<EstatisticasTurma> turmas,
+                                   Map<Situacao, Long> situacoesGerais, Map<String, Map<Situacao, Long>> situacoesPorTurma) {}
 
-            // Para cada turma, busca seus alunos, disciplinas e notas
-            for (Turma turma : turmas) {
-                List<Disciplina> disciplinas = disciplinaDAO.buscarPorTurmaId(turma.getId());
-                turma.getDisciplinas().addAll(disciplinas);
+    private static volatile DadosDoDashboard dadosEmCache;
 
-                List<Aluno> alunos = alunoDAO.buscarPorTurmaId(turma.getId());
-                for (Aluno aluno : alunos) {
-                    aluno.getNotas().addAll(alunoDAO.buscarNotasPorAlunoId(aluno.getId()));
-                }
-                turma.getAlunos().addAll(alunos);
+    /**
+     * Devolve os dados do Dashboard: do cache, se a versão dos dados no banco ainda for a mesma, ou das consultas.
+     * Faz acesso ao banco: não chamar na thread da interface.
+     * @throws SQLException Se o banco não puder ser lido (o cache não é alterado).
+     */
+    public DadosDoDashboard carregarDados() throws SQLException {
+        boolean incluirAnuais = isDisciplinaAnualFinalizada(LocalDate.now().getMonthValue());
+        try (Connection conn = ConexaoBD.conectar()) {
+            // A versão é lida antes das consultas: se os dados mudarem no meio, o cache fica com a versão
+            // antiga e é refeito na próxima abertura.
+            long versao = new VersaoDadosDAO(conn).ler();
+            DadosDoDashboard dados = dadosEmCache;
+            if (dados != null && dados.versaoDosDados() == versao && dados.incluiDisciplinasAnuais() == incluirAnuais) {
+                return dados;
             }
 
-        } catch (SQLException e) {
-            System.err.println("ERRO ao buscar dados para o dashboard: " + e.getMessage());
-            e.printStackTrace();
-            return List.of(); // Retorna uma lista vazia em caso de erro
+            List<EstatisticasTurma> turmas = new EstatisticasDAO(conn).buscarPorTurma(incluirAnuais);
+            dados = new DadosDoDashboard(versao, incluirAnuais, turmas,
+                    getEstatisticasGeraisDeSituacao(turmas), getEstatisticasPorTurma(turmas));
+            dadosEmCache = dados;
+            return dados;
         }
-        return turmas;
     }
 
     /**
      * Calcula as estatísticas gerais de situação dos alunos.
-     * @param turmas A lista de turmas com todos os dados carregados.
+     * @param estatisticas As estatísticas por turma obtidas do banco em {@link #carregarDados()}.
      * @return Um mapa contendo a contagem de cada situação (APROVADO, REPROVADO, etc.).
      */
-    public Map<Situacao, Long> getEstatisticasGeraisDeSituacao(List<Turma> turmas) {
-        final int mesAtual = LocalDate.now().getMonthValue();
-
-        return turmas.stream()
-                .flatMap(turma -> turma.getAlunos().stream()
-                        .flatMap(aluno -> turma.getDisciplinas().stream()
-                                .filter(disciplina -> isDisciplinaFinalizada(disciplina, mesAtual)) // Filtra apenas disciplinas finalizadas
-                                .map(disciplina -> aluno.getSituacaoFinal(disciplina.getNomeDisciplina(), turma))
-                        )
-                )
-                .collect(Collectors.groupingBy(Function.identity(), Collectors.counting()));
+    public Map<Situacao, Long> getEstatisticasGeraisDeSituacao(List<EstatisticasTurma> estatisticas) {
+        long[] contagem = new long[Situacao.values().length];
+        for (EstatisticasTurma turma : estatisticas) {
+            for (int i = 0; i < contagem.length; i++) {
+                contagem[i] += turma.situacoes()[i];
+            }
+        }
+        return paraMapa(contagem);
     }
 
     /**
-     * Calcula as estatísticas de situação dos alunos, agrupadas por turma.
-     * @param turmas A lista de turmas com todos os dados carregados.
+     * Agrupa as estatísticas de situação dos alunos por turma.
+     * @param estatisticas As estatísticas por turma obtidas do banco em {@link #carregarDados()}.
      * @return Um mapa onde a chave é o nome da turma e o valor é outro mapa com a contagem de cada situação.
      */
-    public Map<String, Map<Situacao, Long>> getEstatisticasPorTurma(List<Turma> turmas) {
-        final int mesAtual = LocalDate.now().getMonthValue();
-
-        return turmas.stream()
-                .collect(Collectors.toMap(
-                        Turma::getNomeTurma, // Chave: nome da turma
-                turma -> turma.getAlunos().stream()
-                    .flatMap(aluno -> turma.getDisciplinas().stream()
-                        .filter(disciplina -> isDisciplinaFinalizada(disciplina, mesAtual)) // Filtra apenas disciplinas finalizadas
-                        .map(disciplina -> aluno.getSituacaoFinal(disciplina.getNomeDisciplina(), turma))
-                    ).collect(Collectors.groupingBy(Function.identity(), Collectors.counting()))
-                ));
+    public Map<String, Map<Situacao, Long>> getEstatisticasPorTurma(List<EstatisticasTurma> estatisticas) {
+        Map<String, Map<Situacao, Long>> porTurma = new LinkedHashMap<>();
+        for (EstatisticasTurma turma : estatisticas) {
+            porTurma.put(turma.nomeTurma(), paraMapa(turma.situacoes()));
+        }
+        return porTurma;
     }
 
     /**
-     * Verifica se uma disciplina deve ser considerada como "finalizada" com base no mês atual.
+     * Converte a contagem indexada por ordinal em mapa, omitindo situações sem ocorrências.
      */
-    private boolean isDisciplinaFinalizada(Disciplina disciplina, int mesAtual) {
-        if ("ANUAL".equalsIgnoreCase(disciplina.getTipo())) {
-            // Disciplinas anuais só são consideradas finalizadas em Dezembro.
-            return mesAtual == 12;
-        }
-        if ("MODULAR".equalsIgnoreCase(disciplina.getTipo())) {
-            // Lógica para disciplinas modulares. Assumindo 8 módulos em 12 meses,
-            // cada módulo dura 1.5 meses.
-            // Esta é uma simplificação. Podemos refinar isso se tivermos as datas exatas.
-            // Ex: Módulo 1 (Jan-Fev), Módulo 2 (Mar-Abril), etc.
-            // Vamos considerar que até Novembro (mês 11), 6 módulos já fecharam.
-            // Esta lógica pode ser ajustada para ser mais precisa.
-            return true; // Para o exemplo, vamos considerar todas as modulares.
-                         // Uma lógica mais precisa dependeria de um mapeamento de disciplina -> mês de conclusão.
+    private Map<Situacao, Long> paraMapa(long[] contagem) {
+        Map<Situacao, Long> mapa = new EnumMap<>(Situacao.class);
+        for (Situacao situacao : Situacao.values()) {
+            if (contagem[situacao.ordinal()] > 0) {
+                mapa.put(situacao, contagem[situacao.ordinal()]);
+            }
         }
-        return true; // Comportamento padrão: considera a disciplina.
+        return mapa;
+    }
+
+    /**
+     * Verifica se as disciplinas anuais devem ser consideradas como "finalizadas" com base no mês atual.
+     * As demais (MODULAR ou outro tipo) são sempre consideradas; o filtro é aplicado na consulta do EstatisticasDAO.
+     */
+    private static boolean isDisciplinaAnualFinalizada(int mesAtual) {
+        // Disciplinas anuais só são consideradas finalizadas em Dezembro.
+        // Para as modulares, uma lógica mais precisa dependeria de um mapeamento de disciplina -> mês de conclusão.
+        return mesAtual == 12;
     }
 }
@@ -0,0 +1,201 @@
+package service;
+
+import model.NotaSlot;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Diário (journal) somente de acréscimo com as alterações de notas, em {@code data/diario/}.
+ * <p>
+ * Cada alteração vira uma linha no segmento ativo ({@code diario-000001.log}, ...), gravada e sincronizada
+ * com o disco na hora: é barato e garante que nenhuma edição se perca entre um salvamento e outro.
+ * Os segmentos são "selados" antes da compactação, que incorpora as alterações aos arquivos de notas
+ * e só então apaga os segmentos. Na carga, os registros ainda não compactados são reaplicados.
+ * <p>
+ * Formato de cada linha (separada por tabulação): timestamp, código da turma, código da disciplina, RA, slot, valor.
+ */
+class DiarioDeNotas {
+
+    private static final String PREFIXO = "diario-";
+    private static final String EXTENSAO = ".log";
+    // Acima deste tamanho o segmento ativo é selado e um novo é iniciado.
+    private static final long TAMANHO_MAXIMO_SEGMENTO = 1024 * 1024;
+
+    /**
+     * Uma alteração de nota. O valor é sempre absoluto, então reaplicar o mesmo registro é seguro.
+     */
+    record Registro(long timestamp, String codigoTurma, String codigoDisciplina, String ra, NotaSlot slot, double valor) {}
+
+    private final Path diretorio;
+    private FileChannel segmentoAtivo; // Aberto sob demanda, no primeiro registro
+    private long numeroSegmentoAtivo;
+
+    DiarioDeNotas(String dataDirectoryPath) {
+        this.diretorio = Path.of(dataDirectoryPath, "diario");
+        // Segmentos deixados por execuções anteriores são tratados como selados.
+        long maior = 0;
+        for (Path segmento : listarSegmentos()) {
+            maior = Math.max(maior, numeroDoSegmento(segmento));
+        }
+        this.numeroSegmentoAtivo = maior + 1;
+    }
+
+    /**
+     * Acrescenta o registro ao segmento ativo e força a gravação em disco.
+     */
+    synchronized void registrar(Registro registro) throws IOException {
+        if (segmentoAtivo == null) {
+            Files.createDirectories(diretorio);
+            segmentoAtivo = FileChannel.open(caminhoDoSegmento(numeroSegmentoAtivo),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        }
+        String linha = registro.timestamp() + "\t" + limpar(registro.codigoTurma()) + "\t" + limpar(registro.codigoDisciplina())
+                + "\t" + limpar(registro.ra()) + "\t" + registro.slot().name() + "\t" + registro.valor() + "\n";
+        ByteBuffer buffer = ByteBuffer.wrap(linha.getBytes(StandardCharsets.UTF_8));
+        while (buffer.hasRemaining()) {
+            segmentoAtivo.write(buffer);
+        }
+        segmentoAtivo.force(false);
+        if (segmentoAtivo.size() >= TAMANHO_MAXIMO_SEGMENTO) {
+            selar();
+        }
+    }
+
+    /**
+     * Fecha o segmento ativo (novos registros vão para o próximo) e retorna todos os segmentos selados,
+     * do mais antigo para o mais novo.
+     */
+    synchronized List<Path> selarSegmentos() throws IOException {
+        selar();
+        return listarSegmentos();
+    }
+
+    synchronized boolean possuiRegistros() {
+        return !listarSegmentos().isEmpty();
+    }
+
+    /**
+     * Lê os registros dos segmentos na ordem em que foram gravados. Uma linha final sem quebra de linha
+     * (queda durante a gravação) é ignorada.
+     */
+    List<Registro> ler(List<Path> segmentos) throws IOException {
+        List<Registro> registros = new ArrayList<>();
+        for (Path segmento : segmentos) {
+            String conteudo = Files.readString(segmento, StandardCharsets.UTF_8);
+            int inicio = 0;
+            int numeroLinha = 0;
+            int fim;
+            // Só linhas terminadas em '\n' estão completas.
+            while ((fim = conteudo.indexOf('\n', inicio)) >= 0) {
+                numeroLinha++;
+                Registro registro = converterLinha(conteudo.substring(inicio, fim));
+                if (registro != null) {
+                    registros.add(registro);
+                } else if (fim > inicio) {
+                    System.err.printf("AVISO: Linha %d inválida no diário '%s' foi ignorada.%n", numeroLinha, segmento.getFileName());
+                }
+                inicio = fim + 1;
+            }
+            if (inicio < conteudo.length()) {
+                System.err.printf("AVISO: Registro incompleto no fim do diário '%s' foi ignorado.%n", segmento.getFileName());
+            }
+        }
+        return registros;
+    }
+
+    /**
+     * Todos os segmentos existentes, inclusive o ativo. Usado na carga para reaplicar o que não foi compactado.
+     */
+    synchronized List<Registro> lerTodos() throws IOException {
+        return ler(listarSegmentos());
+    }
+
+    void remover(List<Path> segmentos) throws IOException {
+        for (Path segmento : segmentos) {
+            Files.deleteIfExists(segmento);
+        }
+    }
+
+    synchronized void fechar() {
+        try {
+            selar();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Apaga o diário inteiro. Usado quando os arquivos de notas são substituídos por outra fonte
+     * (ex: restauração do banco de dados) e as alterações antigas não devem mais ser reaplicadas.
+     */
+    static void descartar(String dataDirectoryPath) throws IOException {
+        DiarioDeNotas diario = new DiarioDeNotas(dataDirectoryPath);
+        diario.remover(diario.listarSegmentos());
+    }
+
+    private void selar() throws IOException {
+        if (segmentoAtivo != null) {
+            segmentoAtivo.close();
+            segmentoAtivo = null;
+            numeroSegmentoAtivo++;
+        }
+    }
+
+    private List<Path> listarSegmentos() {
+        List<Path> segmentos = new ArrayList<>();
+        if (!Files.isDirectory(diretorio)) {
+            return segmentos;
+        }
+        try (DirectoryStream<Path> arquivos = Files.newDirectoryStream(diretorio, PREFIXO + "*" + EXTENSAO)) {
+            for (Path arquivo : arquivos) {
+                if (numeroDoSegmento(arquivo) > 0) {
+                    segmentos.add(arquivo);
+                }
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        segmentos.sort((a, b) -> Long.compare(numeroDoSegmento(a), numeroDoSegmento(b)));
+        return segmentos;
+    }
+
+    private Path caminhoDoSegmento(long numero) {
+        return diretorio.resolve(String.format("%s%06d%s", PREFIXO, numero, EXTENSAO));
+    }
+
+    private static long numeroDoSegmento(Path segmento) {
+        String nome = segmento.getFileName().toString();
+        try {
+            return Long.parseLong(nome.substring(PREFIXO.length(), nome.length() - EXTENSAO.length()));
+        } catch (RuntimeException e) {
+            return -1;
+        }
+    }
+
+    private static Registro converterLinha(String linha) {
+        String[] campos = linha.split("\t", -1);
+        if (campos.length != 6) {
+            return null;
+        }
+        try {
+            return new Registro(Long.parseLong(campos[0]), campos[1], campos[2], campos[3],
+                    NotaSlot.valueOf(campos[4]), Double.parseDouble(campos[5]));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    // Tabulações e quebras de linha separam campos e registros, então não podem aparecer nos valores.
+    private static String limpar(String texto) {
+        return texto == null ? "" : texto.replace('\t', ' ').replace('\n', ' ').replace('\r', ' ');
+    }
+}
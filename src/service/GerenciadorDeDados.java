@@ -11,19 +11,17 @@ import org.apache.pdfbox.pdmodel.graphics.image.PDImageXObject;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.reflect.TypeToken;
-import dto.AlunoDTO;
 import dto.NotaDTO;
 import dto.TurmaDTO;
 import model.*; // Importa todas as classes do pacote model
 
+import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileReader;
-import java.io.FileWriter;
 import java.io.InputStream;
 import java.io.IOException;
 import java.io.Reader;
-import java.io.Writer;
 import java.lang.reflect.Type;
 import java.nio.file.Files;
 import java.nio.file.Paths;
@@ -31,24 +29,130 @@ import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
 
 public class GerenciadorDeDados {
 
     private List<Turma> turmas;
+    private final AvaliacaoService avaliacaoService = new AvaliacaoService();
+    private final String caminhoArquivoTurmas;
     private final String dataDirectoryPath;
+    private final boolean carregamentoParalelo;
+
+    // Limita quantos arquivos ficam abertos ao mesmo tempo durante a leitura paralela.
+    private static final int LEITURAS_SIMULTANEAS = 32;
+
+    // Índices para busca em tempo constante. Mantidos em sincronia com a lista de turmas.
+    private final Map<String, Turma> turmasPorCodigo = new HashMap<>();
+    private final Map<String, Aluno> alunosPorRa = new HashMap<>();
+
+    // Controle de alterações: cada alteração de nota é acrescentada ao diário (data/diario), que é
+    // incorporado aos arquivos de notas pela compactação, em segundo plano na PersistenciaAssincrona.
+    // Alterações na lista de alunos regravam os arquivos da turma inteiros pela mesma fila.
+    private final Map<Aluno, Turma> turmaPorAluno = new IdentityHashMap<>();
+    private final Gson gsonSaida = new GsonBuilder().setPrettyPrinting().create();
+    private final PersistenciaAssincrona persistencia = new PersistenciaAssincrona(gsonSaida, PersistenciaAssincrona.ATRASO_PADRAO_MS);
+    private final DiarioDeNotas diario;
+    private final CompactadorDiario compactador;
+
+    private static final long INTERVALO_COMPACTACAO_MS = 5 * 60 * 1000;
 
     public GerenciadorDeDados(String caminhoArquivoTurmas) {
+        this(caminhoArquivoTurmas, true);
+    }
+
+    /**
+     * @param carregamentoParalelo Se true, os arquivos de alunos e notas são lidos em paralelo
+     *                             (threads virtuais) e depois montados no modelo na ordem original.
+     */
+    public GerenciadorDeDados(String caminhoArquivoTurmas, boolean carregamentoParalelo) {
+        this.caminhoArquivoTurmas = caminhoArquivoTurmas;
         this.dataDirectoryPath = new File(caminhoArquivoTurmas).getParent();
-        // CORREÇÃO: Separa o carregamento em duas fases para evitar recursão.
-        // 1. Carrega a estrutura de turmas e alunos.
-        List<Turma> turmasCarregadas = carregarEstruturaBase(caminhoArquivoTurmas);
+        this.carregamentoParalelo = carregamentoParalelo;
+        this.diario = new DiarioDeNotas(dataDirectoryPath);
+        this.compactador = new CompactadorDiario(diario, dataDirectoryPath, gsonSaida);
+        carregar();
+        persistencia.agendarPeriodicamente(compactador::compactar, INTERVALO_COMPACTACAO_MS);
+    }
+
+    /**
+     * Descarta os dados em memória e recarrega tudo a partir dos arquivos JSON.
+     * Útil após uma restauração do banco de dados ou uma importação externa.
+     */
+    public void recarregar() {
+        carregar();
+    }
+
+    private void carregar() {
+        // A compactação altera os arquivos de notas e apaga o diário: não pode acontecer no meio da carga.
+        synchronized (compactador) {
+            carregarArquivosEDiario();
+        }
+        if (diario.possuiRegistros()) {
+            // Incorpora aos arquivos, em segundo plano, o que ficou pendente da execução anterior.
+            persistencia.descarregar(compactador::compactar);
+        }
+    }
+
+    private void carregarArquivosEDiario() {
+        turmasPorCodigo.clear();
+        alunosPorRa.clear();
+        turmaPorAluno.clear();
+        persistencia.descartarPendencias();
+        Gson gson = new Gson();
+        long[] tempos = new long[3]; // estrutura, leitura dos arquivos, montagem do modelo
+
+        // 1. Carrega a estrutura de turmas e disciplinas.
+        long inicio = System.nanoTime();
+        List<Turma> turmasCarregadas = carregarEstruturaBase(caminhoArquivoTurmas, gson);
+        tempos[0] = System.nanoTime() - inicio;
+
+        // 2. Lê os arquivos de alunos e notas (do snapshot binário quando não mudaram)
+        //    e 3. monta o modelo (os índices são preenchidos aqui).
+        CacheCarregamento cache = new CacheCarregamento(dataDirectoryPath);
+        if (carregamentoParalelo) {
+            Semaphore permissoes = new Semaphore(LEITURAS_SIMULTANEAS);
+            try (ExecutorService leitores = Executors.newVirtualThreadPerTaskExecutor()) {
+                Executor executorLimitado = tarefa -> leitores.execute(() -> {
+                    permissoes.acquireUninterruptibly();
+                    try {
+                        tarefa.run();
+                    } finally {
+                        permissoes.release();
+                    }
+                });
+                carregarAlunosENotas(turmasCarregadas, cache, executorLimitado, tempos);
+            }
+        } else {
+            carregarAlunosENotas(turmasCarregadas, cache, Runnable::run, tempos);
+        }
         this.turmas = turmasCarregadas; // Atribui a lista principal.
-        // 2. Agora, com a estrutura base pronta, carrega as notas.
-        carregarTodasAsNotas();
+        cache.salvar();
+
+        // 4. Reaplica as alterações do diário ainda não compactadas e só então passa a observar os alunos.
+        int reaplicadas = reaplicarDiario();
+        for (Turma turma : turmasCarregadas) {
+            for (Aluno aluno : turma.getAlunos()) {
+                observarAluno(turma, aluno);
+            }
+        }
+        if (reaplicadas > 0) {
+            System.out.printf("%d alteração(ões) de notas reaplicada(s) a partir do diário.%n", reaplicadas);
+        }
+
+        System.out.printf("Dados carregados (%s): estrutura %d ms, leitura dos arquivos %d ms (%d do cache, %d do JSON), montagem %d ms.%n",
+                carregamentoParalelo ? "paralelo" : "sequencial",
+                tempos[0] / 1_000_000, tempos[1] / 1_000_000, cache.getAcertos(), cache.getFalhas(), tempos[2] / 1_000_000);
     }
 
     // --- MÉTODOS PÚBLICOS PRINCIPAIS (API do Gerenciador) ---
@@ -58,16 +162,52 @@ public class GerenciadorDeDados {
     }
 
     public Optional<Turma> buscarTurmaPorCodigo(String codigoTurma) {
-        return turmas.stream()
-                .filter(t -> t.getCodigoTurma().equals(codigoTurma))
-                .findFirst();
+        return Optional.ofNullable(turmasPorCodigo.get(codigoTurma));
     }
 
     public Optional<Aluno> buscarAlunoPorRa(String ra) {
-        return turmas.stream()
-                .flatMap(t -> t.getAlunos().stream())
-                .filter(a -> a.getRa().equals(ra))
-                .findFirst();
+        return Optional.ofNullable(alunosPorRa.get(ra));
+    }
+
+    /**
+     * Adiciona um aluno a uma turma já carregada, mantendo o índice de RA atualizado.
+     * @return true se a turma existe e o aluno foi adicionado.
+     */
+    public boolean adicionarAluno(String codigoTurma, Aluno aluno) {
+        Turma turma = turmasPorCodigo.get(codigoTurma);
+        if (turma == null) {
+            return false;
+        }
+        turma.adicionarAluno(aluno);
+        indexarAluno(aluno);
+        observarAluno(turma, aluno);
+        // Os arquivos de notas listam todos os alunos da turma, então todos precisam ser regravados.
+        marcarTurmaComoAlterada(turma);
+        return true;
+    }
+
+    /**
+     * Agenda a regravação de todos os arquivos de notas da turma.
+     * Use após alterações na lista de alunos (inclusão, remoção, troca de nome ou RA).
+     */
+    public void marcarTurmaComoAlterada(Turma turma) {
+        for (Disciplina disciplina : turma.getDisciplinas()) {
+            for (int trimestre = 1; trimestre <= NotaSlot.TOTAL_TRIMESTRES; trimestre++) {
+                agendarGravacao(turma, disciplina, trimestre);
+            }
+        }
+    }
+
+    /**
+     * Apaga o diário de alterações de uma pasta 'data' cujos arquivos de notas foram substituídos
+     * por outra fonte (ex: restauração do banco), para que edições antigas não sejam reaplicadas.
+     */
+    public static void descartarDiario(String dataDirectoryPath) throws IOException {
+        DiarioDeNotas.descartar(dataDirectoryPath);
+    }
+
+    public boolean possuiAlteracoesPendentes() {
+        return persistencia.possuiPendencias() || diario.possuiRegistros();
     }
 
     public List<String> gerarRelatorioFinalTurma(String codigoTurma, String nomeDisciplina) {
@@ -77,15 +217,21 @@ public class GerenciadorDeDados {
         }
 
         Turma turma = turmaOpt.get();
+        // Disciplinas fora da configuração da turma ainda podem ter notas; avalia-as pela regra da turma.
+        Disciplina disciplina = turma.getDisciplinas().stream()
+                .filter(d -> d.getNomeDisciplina().equalsIgnoreCase(nomeDisciplina))
+                .findFirst()
+                .orElseGet(() -> new Disciplina(nomeDisciplina, nomeDisciplina, null));
+
         List<String> relatorio = new ArrayList<>();
         relatorio.add(String.format("--- Relatório Final da Turma: %s ---", turma.getNomeTurma()));
         relatorio.add(String.format("--- Disciplina: %s ---\n", nomeDisciplina));
 
-        for (Aluno aluno : turma.getAlunos()) {
-            double mediaFinal = aluno.calcularMediaFinalAnual(nomeDisciplina, turma);
-            Situacao situacao = aluno.getSituacaoFinal(nomeDisciplina, turma);
+        AvaliacaoTurma avaliacao = avaliacaoService.avaliarTurma(turma, disciplina);
+        List<Aluno> alunos = avaliacao.getAlunos();
+        for (int linha = 0; linha < alunos.size(); linha++) {
             relatorio.add(String.format("Aluno: %-30s | Média Final: %.2f | Situação: %s",
-                    aluno.getNome(), mediaFinal, situacao));
+                    alunos.get(linha).getNome(), avaliacao.getMediaFinal(linha, disciplina), avaliacao.getSituacao(linha, disciplina)));
         }
 
         return relatorio;
@@ -190,88 +336,138 @@ public class GerenciadorDeDados {
 
         // Gera a tabela de alunos dinamicamente
         StringBuilder tabela = new StringBuilder();
-        for (Aluno aluno : turma.getAlunos()) {
-            double mediaFinal = aluno.calcularMediaFinalAnual(disciplina.getNomeDisciplina(), turma);
-            Situacao situacao = aluno.getSituacaoFinal(disciplina.getNomeDisciplina(), turma);
-            tabela.append(String.format("\n| %-36s | %-11.2f | %-17s |", aluno.getNome(), mediaFinal, situacao));
+        AvaliacaoTurma avaliacao = avaliacaoService.avaliarTurma(turma, disciplina);
+        List<Aluno> alunos = avaliacao.getAlunos();
+        for (int linha = 0; linha < alunos.size(); linha++) {
+            tabela.append(String.format("\n| %-36s | %-11.2f | %-17s |", alunos.get(linha).getNome(),
+                    avaliacao.getMediaFinal(linha, disciplina), avaliacao.getSituacao(linha, disciplina)));
         }
 
         // Substitui o placeholder da tabela
         return template.replace("{{tabela_alunos}}", tabela.toString());
     }
 
-    public boolean adicionarOuAtualizarNota(String ra, String nomeDisciplina, String descricaoNota, double valor) {
+    public boolean adicionarOuAtualizarNota(String ra, String nomeDisciplina, NotaSlot slot, double valor) {
         Optional<Aluno> alunoOpt = buscarAlunoPorRa(ra);
         if (alunoOpt.isPresent()) {
-            Aluno aluno = alunoOpt.get();
-            Optional<Nota> notaOpt = aluno.getNotas().stream()
-                    .filter(n -> n.getDisciplina().equals(nomeDisciplina) && n.getDescricao().equals(descricaoNota))
-                    .findFirst();
-
-            if (notaOpt.isPresent()) {
-                notaOpt.get().setValor(valor);
-            } else {
-                aluno.adicionarNota(new Nota(valor, nomeDisciplina, descricaoNota));
-            }
+            alunoOpt.get().adicionarOuAtualizarNota(nomeDisciplina, slot, valor);
             return true;
         }
         return false;
     }
 
-    public void salvarAlteracoesNotas() {
-        Gson gson = new GsonBuilder().setPrettyPrinting().create();
-        String notasDirectoryPath = dataDirectoryPath + File.separator + "notas_json";
+    /**
+     * Incorpora imediatamente aos arquivos de notas as alterações do diário (e as gravações pendentes),
+     * sem esperar a compactação periódica. Não bloqueia: o trabalho acontece na thread de persistência.
+     * As alterações já estão seguras no diário desde o momento em que foram feitas.
+     * @return Um future concluído quando tudo foi gravado, ou com erro se algum arquivo falhou
+     *         (nesse caso a alteração continua pendente para a próxima tentativa).
+     */
+    public CompletableFuture<Void> salvarAlteracoesNotas() {
+        return persistencia.descarregar(compactador::compactar);
+    }
 
-        for (Turma turma : turmas) {
-            for (Disciplina disciplina : turma.getDisciplinas()) {
-                for (int trimestre = 1; trimestre <= 3; trimestre++) {
-                    salvarNotasPorTurmaDisciplinaTrimestre(turma, disciplina, trimestre, notasDirectoryPath, gson);
+    /**
+     * Grava as alterações pendentes, compacta o diário e encerra a thread de gravação.
+     * Deve ser chamado ao fechar a aplicação.
+     */
+    public void encerrar() {
+        persistencia.encerrar(compactador::compactar);
+        diario.fechar();
+    }
+
+    // --- LÓGICA DE SALVAMENTO ---
+
+    private void observarAluno(Turma turma, Aluno aluno) {
+        turmaPorAluno.put(aluno, turma);
+        aluno.setObservadorDeNotas(this::registrarAlteracaoDeNota);
+    }
+
+    private void registrarAlteracaoDeNota(Aluno aluno, String nomeDisciplina, NotaSlot slot) {
+        Turma turma = turmaPorAluno.get(aluno);
+        if (turma == null) {
+            return; // Aluno de uma carga anterior (antes de recarregar())
+        }
+        for (Disciplina disciplina : turma.getDisciplinas()) {
+            // Mesma comparação usada pelo Aluno para indexar as notas por disciplina.
+            if (disciplina.getNomeDisciplina().equalsIgnoreCase(nomeDisciplina)) {
+                try {
+                    diario.registrar(new DiarioDeNotas.Registro(System.currentTimeMillis(), turma.getCodigoTurma(),
+                            disciplina.getCodigoDisciplina(), aluno.getRa(), slot, aluno.getNota(nomeDisciplina, slot)));
+                } catch (IOException e) {
+                    // Sem o diário, garante a alteração regravando o arquivo inteiro.
+                    System.err.println("AVISO: Falha ao registrar a alteração no diário: " + e.getMessage());
+                    agendarGravacao(turma, disciplina, slot.getTrimestre());
                 }
             }
         }
     }
 
-    // --- LÓGICA DE SALVAMENTO ---
+    /**
+     * Aplica ao modelo recém-carregado os registros do diário, na ordem em que foram feitos.
+     * @return Quantos registros foram aplicados.
+     */
+    private int reaplicarDiario() {
+        List<DiarioDeNotas.Registro> registros;
+        try {
+            registros = diario.lerTodos();
+        } catch (IOException e) {
+            e.printStackTrace();
+            return 0;
+        }
+        int aplicados = 0;
+        for (DiarioDeNotas.Registro registro : registros) {
+            Turma turma = turmasPorCodigo.get(registro.codigoTurma());
+            Disciplina disciplina = turma == null ? null : turma.getDisciplinas().stream()
+                    .filter(d -> d.getCodigoDisciplina().equals(registro.codigoDisciplina()))
+                    .findFirst().orElse(null);
+            Aluno aluno = alunosPorRa.get(registro.ra());
+            if (disciplina == null || aluno == null) {
+                System.err.printf("AVISO: Registro do diário ignorado (turma '%s', disciplina '%s', RA '%s' não encontrados).%n",
+                        registro.codigoTurma(), registro.codigoDisciplina(), registro.ra());
+                continue;
+            }
+            aluno.adicionarOuAtualizarNota(disciplina.getNomeDisciplina(), registro.slot(), registro.valor());
+            aplicados++;
+        }
+        return aplicados;
+    }
+
+    /**
+     * Monta o conteúdo do arquivo aqui, na thread que altera o modelo, e entrega à persistência
+     * apenas o instantâneo (a serialização e a escrita acontecem em segundo plano).
+     */
+    private void agendarGravacao(Turma turma, Disciplina disciplina, int trimestre) {
+        String caminhoArquivo = dataDirectoryPath + File.separator + "notas_json" + File.separator + nomeArquivoNotas(turma, disciplina, trimestre);
+        persistencia.agendar(Paths.get(caminhoArquivo), montarNotasDTO(turma, disciplina, trimestre));
+    }
 
-    private void salvarNotasPorTurmaDisciplinaTrimestre(Turma turma, Disciplina disciplina, int trimestre, String notasDir, Gson gson) {
+    private List<NotaDTO> montarNotasDTO(Turma turma, Disciplina disciplina, int trimestre) {
         List<NotaDTO> notasDTOList = new ArrayList<>();
         for (Aluno aluno : turma.getAlunos()) {
             NotaDTO dto = new NotaDTO();
             dto.setNome(aluno.getNome());
             dto.setRa(aluno.getRa());
 
-            Map<String, Double> notasDoTrimestre = aluno.getNotas().stream()
-                    .filter(n -> n.getDisciplina().equals(disciplina.getNomeDisciplina()) && n.getDescricao().startsWith("T" + trimestre))
-                    .collect(Collectors.toMap(Nota::getDescricao, Nota::getValor, (v1, v2) -> v1));
-
-            dto.setNm1(String.valueOf(notasDoTrimestre.getOrDefault("T" + trimestre + " - N1", 0.0)));
-            dto.setNm2(String.valueOf(notasDoTrimestre.getOrDefault("T" + trimestre + " - N2", 0.0)));
-            dto.setNm3(String.valueOf(notasDoTrimestre.getOrDefault("T" + trimestre + " - N3", 0.0)));
-            dto.setRecuperacao(String.valueOf(notasDoTrimestre.getOrDefault("T" + trimestre + " - REC", 0.0)));
+            String nomeDisciplina = disciplina.getNomeDisciplina();
+            dto.setNm1(String.valueOf(aluno.getNota(nomeDisciplina, NotaSlot.of(trimestre, NotaSlot.Tipo.N1))));
+            dto.setNm2(String.valueOf(aluno.getNota(nomeDisciplina, NotaSlot.of(trimestre, NotaSlot.Tipo.N2))));
+            dto.setNm3(String.valueOf(aluno.getNota(nomeDisciplina, NotaSlot.of(trimestre, NotaSlot.Tipo.N3))));
+            dto.setRecuperacao(String.valueOf(aluno.getNota(nomeDisciplina, NotaSlot.of(trimestre, NotaSlot.Tipo.REC))));
             dto.setTotalFaltas("");
 
             notasDTOList.add(dto);
         }
-
-        // Adicionado o prefixo "notas_" ao nome do arquivo de saída.
-        String nomeArquivo = "notas_" + turma.getCodigoTurma() + "_" + disciplina.getCodigoDisciplina() + "_T" + trimestre + ".json";
-        String caminhoArquivo = notasDir + File.separator + nomeArquivo;
-
-        try (Writer writer = new FileWriter(caminhoArquivo)) {
-            gson.toJson(notasDTOList, writer);
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
+        return notasDTOList;
     }
 
 
     // --- LÓGICA DE CARREGAMENTO ---
 
     /**
-     * Fase 1: Carrega a estrutura de turmas, disciplinas e alunos.
+     * Fase 1: Lê a estrutura de turmas e disciplinas do arquivo de configuração.
      */
-    private List<Turma> carregarEstruturaBase(String caminhoArquivoTurmas) {
-        Gson gson = new Gson();
+    private List<Turma> carregarEstruturaBase(String caminhoArquivoTurmas, Gson gson) {
         List<Turma> turmasCarregadas = new ArrayList<>();
 
         try (Reader reader = new FileReader(caminhoArquivoTurmas)) {
@@ -281,98 +477,176 @@ public class GerenciadorDeDados {
             if (turmasDTO != null) {
                 for (TurmaDTO dto : turmasDTO) {
                     Turma turma = new Turma(dto.getCodigoTurma(), dto.getNomeTurma());
+                    // As regras de avaliação são resolvidas uma única vez aqui, e não a cada cálculo de média.
+                    if (dto.getRegraAvaliacao() != null) {
+                        turma.setRegraAvaliacao(resolverRegra(dto.getRegraAvaliacao(), turma.getRegraAvaliacao(), turma.getCodigoTurma()));
+                    }
                     if (dto.getDisciplinas() != null) {
                         for (TurmaDTO.DisciplinaDTO disciplinaDTO : dto.getDisciplinas()) {
-                            turma.adicionarDisciplina(new Disciplina(disciplinaDTO.getCodigoDisciplina(), 
-                                                                   disciplinaDTO.getNomeDisciplina(), disciplinaDTO.getTipo()));
+                            Disciplina disciplina = new Disciplina(disciplinaDTO.getCodigoDisciplina(),
+                                                                   disciplinaDTO.getNomeDisciplina(), disciplinaDTO.getTipo());
+                            if (disciplinaDTO.getRegraAvaliacao() != null) {
+                                disciplina.setRegraAvaliacao(resolverRegra(disciplinaDTO.getRegraAvaliacao(), turma.getRegraAvaliacao(),
+                                        turma.getCodigoTurma() + "/" + disciplina.getCodigoDisciplina()));
+                            }
+                            turma.adicionarDisciplina(disciplina);
                         }
                     }
                     turmasCarregadas.add(turma);
+                    // Mantém a semântica da busca linear anterior: a primeira turma com o código vence.
+                    turmasPorCodigo.putIfAbsent(turma.getCodigoTurma(), turma);
                 }
             }
         } catch (IOException e) {
             e.printStackTrace();
         }
+        return turmasCarregadas;
+    }
 
-        for (Turma turma : turmasCarregadas) {
-            carregarAlunosParaTurma(turma, dataDirectoryPath, gson);
+    /**
+     * Combina a configuração do JSON com a regra herdada (da turma ou a padrão).
+     * Em caso de configuração inválida, mantém a regra herdada.
+     */
+    private RegraAvaliacao resolverRegra(TurmaDTO.RegraAvaliacaoDTO dto, RegraAvaliacao base, String origem) {
+        try {
+            return new RegraAvaliacao(
+                    dto.getRecuperacaoTrimestral() != null ? dto.getRecuperacaoTrimestral() : base.isRecuperacaoTrimestral(),
+                    dto.getMediaAprovacao() != null ? dto.getMediaAprovacao() : base.getMediaAprovacao(),
+                    dto.getMediaRecuperacao() != null ? dto.getMediaRecuperacao() : base.getMediaRecuperacao(),
+                    dto.getPesosTrimestres() != null ? dto.getPesosTrimestres()
+                            : new double[]{base.getPesoTrimestre(1), base.getPesoTrimestre(2), base.getPesoTrimestre(3)});
+        } catch (IllegalArgumentException e) {
+            System.err.printf("        - AVISO: Regra de avaliação inválida em '%s' (%s). Usando a regra padrão.%n", origem, e.getMessage());
+            return base;
         }
-        return turmasCarregadas;
     }
 
     /**
-     * Fase 2: Carrega as notas para a estrutura de turmas já existente.
+     * Fases 2 e 3: lê os arquivos de alunos e de notas (em paralelo, se habilitado) e depois
+     * monta o modelo em uma única thread, sempre na mesma ordem do carregamento sequencial.
      */
-    private void carregarTodasAsNotas() {
-        Gson gson = new Gson();
+    private void carregarAlunosENotas(List<Turma> turmasCarregadas, CacheCarregamento cache, Executor executor, long[] tempos) {
         String notasDirectoryPath = dataDirectoryPath + File.separator + "notas_json";
-        for (Turma turma : this.turmas) {
+        long inicio = System.nanoTime();
+
+        // Fase 2: dispara a leitura de todos os arquivos. Nada aqui toca no modelo.
+        List<CompletableFuture<List<Aluno>>> leiturasAlunos = new ArrayList<>();
+        List<CompletableFuture<LeitorJsonNotas.NotasDoArquivo>> leiturasNotas = new ArrayList<>();
+        for (Turma turma : turmasCarregadas) {
+            leiturasAlunos.add(CompletableFuture.supplyAsync(() -> lerAlunosDaTurma(turma, cache), executor));
+            for (Disciplina disciplina : turma.getDisciplinas()) {
+                for (int trimestre = 1; trimestre <= 3; trimestre++) {
+                    String caminhoArquivo = notasDirectoryPath + File.separator + nomeArquivoNotas(turma, disciplina, trimestre);
+                    leiturasNotas.add(CompletableFuture.supplyAsync(() -> lerNotas(caminhoArquivo, cache), executor));
+                }
+            }
+        }
+        CompletableFuture.allOf(leiturasAlunos.toArray(new CompletableFuture<?>[0])).exceptionally(e -> null).join();
+        CompletableFuture.allOf(leiturasNotas.toArray(new CompletableFuture<?>[0])).exceptionally(e -> null).join();
+        tempos[1] = System.nanoTime() - inicio;
+
+        // Fase 3: montagem determinística. Primeiro todos os alunos (as notas são ligadas pelo RA global)...
+        inicio = System.nanoTime();
+        for (int i = 0; i < turmasCarregadas.size(); i++) {
+            List<Aluno> alunos = resultado(leiturasAlunos.get(i));
+            if (alunos != null) {
+                for (Aluno aluno : alunos) {
+                    turmasCarregadas.get(i).adicionarAluno(aluno);
+                    indexarAluno(aluno);
+                }
+            }
+        }
+        // ... depois as notas, na ordem turma > disciplina > trimestre.
+        int indiceArquivo = 0;
+        for (Turma turma : turmasCarregadas) {
             for (Disciplina disciplina : turma.getDisciplinas()) {
                 for (int trimestre = 1; trimestre <= 3; trimestre++) {
-                    carregarNotasParaTurmaDisciplina(turma, disciplina, trimestre, notasDirectoryPath, gson);
+                    LeitorJsonNotas.NotasDoArquivo notas = resultado(leiturasNotas.get(indiceArquivo++));
+                    if (notas != null) {
+                        aplicarNotas(notas, disciplina, trimestre);
+                    }
                 }
             }
         }
+        tempos[2] = System.nanoTime() - inicio;
     }
 
-    private void carregarAlunosParaTurma(Turma turma, String dir, Gson gson) {
-        String caminhoArquivo = dir + File.separator + "turmas" + File.separator + turma.getCodigoTurma() + ".json";
-        try (Reader reader = new FileReader(caminhoArquivo)) {
-            Type tipoListaAlunoDTO = new TypeToken<ArrayList<AlunoDTO>>(){}.getType();
-            List<AlunoDTO> alunosDTO = gson.fromJson(reader, tipoListaAlunoDTO);
-            if (alunosDTO != null) {
-                for (AlunoDTO dto : alunosDTO) {
-                    turma.adicionarAluno(new Aluno(dto.getNome(), dto.getRa()));
-                }
+    private static <T> T resultado(CompletableFuture<T> leitura) {
+        try {
+            return leitura.join();
+        } catch (CompletionException e) {
+            // Propaga o erro original, como no carregamento sequencial.
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
             }
+            throw e;
+        }
+    }
+
+    private List<Aluno> lerAlunosDaTurma(Turma turma, CacheCarregamento cache) {
+        File arquivo = new File(dataDirectoryPath + File.separator + "turmas" + File.separator + turma.getCodigoTurma() + ".json");
+        try {
+            return cache.lerAlunos(arquivo, () -> {
+                try (Reader reader = new BufferedReader(new FileReader(arquivo))) {
+                    return LeitorJsonNotas.lerAlunos(reader);
+                }
+            });
         } catch (FileNotFoundException e) {
             System.err.printf("        - AVISO: Arquivo de alunos '%s' não encontrado para a turma '%s'.%n",
                     turma.getCodigoTurma() + ".json", turma.getNomeTurma());
         } catch (IOException e) {
             e.printStackTrace();
         }
+        return null;
+    }
+
+    private void indexarAluno(Aluno aluno) {
+        if (aluno.getRa() != null) {
+            // Mantém a semântica da busca linear anterior: o primeiro aluno com o RA vence.
+            alunosPorRa.putIfAbsent(aluno.getRa(), aluno);
+        }
     }
 
-    private void carregarNotasParaTurmaDisciplina(Turma turma, Disciplina disciplina, int trimestre, String notasDir, Gson gson) {
-        String nomeArquivo = "notas_" + turma.getCodigoTurma() + "_" + disciplina.getCodigoDisciplina() + "_T" + trimestre + ".json";
-        String caminhoArquivo = notasDir + File.separator + nomeArquivo;
+    private static String nomeArquivoNotas(Turma turma, Disciplina disciplina, int trimestre) {
+        return nomeArquivoNotas(turma.getCodigoTurma(), disciplina.getCodigoDisciplina(), trimestre);
+    }
+
+    static String nomeArquivoNotas(String codigoTurma, String codigoDisciplina, int trimestre) {
+        return "notas_" + codigoTurma + "_" + codigoDisciplina + "_T" + trimestre + ".json";
+    }
 
+    private LeitorJsonNotas.NotasDoArquivo lerNotas(String caminhoArquivo, CacheCarregamento cache) {
         File arquivoNotas = new File(caminhoArquivo);
-        if (!arquivoNotas.exists()) return; // Se o arquivo não existe, simplesmente retorna.
-
-        try (Reader reader = new FileReader(caminhoArquivo)) {
-            Type tipoListaNotaDTO = new TypeToken<ArrayList<NotaDTO>>(){}.getType();
-            List<NotaDTO> notasDTO = gson.fromJson(reader, tipoListaNotaDTO);
-
-            if (notasDTO == null) return;
-
-            for (NotaDTO dto : notasDTO) {
-                Optional<Aluno> alunoOpt = buscarAlunoPorRa(dto.getRa());
-                if (alunoOpt.isPresent()) {
-                    Aluno aluno = alunoOpt.get();
-                    adicionarNotaSeValida(aluno, dto.getNm1(), disciplina.getNomeDisciplina(), "T" + trimestre + " - N1");
-                    adicionarNotaSeValida(aluno, dto.getNm2(), disciplina.getNomeDisciplina(), "T" + trimestre + " - N2");
-                    adicionarNotaSeValida(aluno, dto.getNm3(), disciplina.getNomeDisciplina(), "T" + trimestre + " - N3");
-                    adicionarNotaSeValida(aluno, dto.getRecuperacao(), disciplina.getNomeDisciplina(), "T" + trimestre + " - REC");
-                } else {
-                    System.err.printf("            - AVISO: Aluno com RA '%s' do arquivo de notas não foi encontrado na lista da turma.%n", dto.getRa());
-                }
-            }
+        if (!arquivoNotas.exists()) return null; // Se o arquivo não existe, simplesmente retorna.
 
+        try {
+            return cache.lerNotas(arquivoNotas, () -> {
+                try (Reader reader = new BufferedReader(new FileReader(arquivoNotas))) {
+                    return LeitorJsonNotas.lerNotas(reader);
+                }
+            });
         } catch (FileNotFoundException e) {
             // Silencioso, pois é esperado que nem todas as turmas/disciplinas/trimestres tenham arquivos de notas
-        } catch (IOException | NumberFormatException e) {
+        } catch (IOException e) {
             e.printStackTrace();
         }
+        return null;
     }
 
-    private void adicionarNotaSeValida(Aluno aluno, String valorNota, String disciplina, String descricao) {
-        if (valorNota != null && !valorNota.trim().isEmpty()) {
-            try {
-                double valor = Double.parseDouble(valorNota.replace(',', '.'));
-                aluno.adicionarNota(new Nota(valor, disciplina, descricao));
-            } catch (NumberFormatException e) {
-                // Silencioso
+    private void aplicarNotas(LeitorJsonNotas.NotasDoArquivo notas, Disciplina disciplina, int trimestre) {
+        String nomeDisciplina = disciplina.getNomeDisciplina();
+        for (int linha = 0; linha < notas.getLinhas(); linha++) {
+            Optional<Aluno> alunoOpt = buscarAlunoPorRa(notas.getRa(linha));
+            if (alunoOpt.isPresent()) {
+                Aluno aluno = alunoOpt.get();
+                for (NotaSlot.Tipo tipo : NotaSlot.Tipo.values()) {
+                    double valor = notas.getValor(linha, tipo);
+                    if (!Double.isNaN(valor)) { // NaN indica nota ausente ou inválida
+                        aluno.adicionarOuAtualizarNota(nomeDisciplina, NotaSlot.of(trimestre, tipo), valor);
+                    }
+                }
+            } else {
+                System.err.printf("            - AVISO: Aluno com RA '%s' do arquivo de notas não foi encontrado na lista da turma.%n", notas.getRa(linha));
             }
         }
     }
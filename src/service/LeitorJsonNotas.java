@@ -0,0 +1,251 @@
+package service;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import model.Aluno;
+import model.NotaSlot;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Leitura em streaming (JsonReader) dos arquivos de alunos e de notas.
+ * Evita as listas intermediárias de DTOs e a desserialização por reflexão, e converte as notas
+ * ("7,5", "8.2" ou números JSON) sem criar strings temporárias.
+ */
+public final class LeitorJsonNotas {
+
+    private static final int TIPOS = NotaSlot.TIPOS_POR_TRIMESTRE;
+
+    // Potências de 10 representáveis exatamente em double.
+    private static final double[] POTENCIAS_DE_10 = new double[23];
+    static {
+        POTENCIAS_DE_10[0] = 1.0;
+        for (int i = 1; i < POTENCIAS_DE_10.length; i++) {
+            POTENCIAS_DE_10[i] = POTENCIAS_DE_10[i - 1] * 10.0;
+        }
+    }
+
+    private LeitorJsonNotas() {
+    }
+
+    /**
+     * Lê um arquivo de turma no formato [{"nome": ..., "ra": ...}, ...].
+     * @return Os alunos na ordem do arquivo, ou null se o documento estiver vazio ou for null.
+     */
+    public static List<Aluno> lerAlunos(Reader origem) throws IOException {
+        JsonReader reader = new JsonReader(origem);
+        reader.setLenient(true); // Mesmo comportamento do Gson.fromJson
+        if (!iniciarLista(reader)) {
+            return null;
+        }
+        List<Aluno> alunos = new ArrayList<>();
+        while (reader.hasNext()) {
+            if (reader.peek() == JsonToken.NULL) {
+                reader.nextNull();
+                continue;
+            }
+            String nome = null;
+            String ra = null;
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                    case "nome" -> nome = lerTexto(reader);
+                    case "ra" -> ra = lerTexto(reader);
+                    default -> reader.skipValue();
+                }
+            }
+            reader.endObject();
+            alunos.add(new Aluno(nome, ra));
+        }
+        reader.endArray();
+        return alunos;
+    }
+
+    /**
+     * Lê um arquivo de notas de um trimestre (nm1, nm2, nm3 e recuperacao por aluno).
+     * @return As notas do arquivo, ou null se o documento estiver vazio ou for null.
+     */
+    public static NotasDoArquivo lerNotas(Reader origem) throws IOException {
+        JsonReader reader = new JsonReader(origem);
+        reader.setLenient(true);
+        if (!iniciarLista(reader)) {
+            return null;
+        }
+        NotasDoArquivo notas = new NotasDoArquivo();
+        while (reader.hasNext()) {
+            if (reader.peek() == JsonToken.NULL) {
+                reader.nextNull();
+                continue;
+            }
+            int linha = notas.novaLinha();
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                    case "ra" -> notas.ras[linha] = lerTexto(reader);
+                    case "nm1" -> notas.valores[linha * TIPOS + NotaSlot.Tipo.N1.ordinal()] = lerNota(reader);
+                    case "nm2" -> notas.valores[linha * TIPOS + NotaSlot.Tipo.N2.ordinal()] = lerNota(reader);
+                    case "nm3" -> notas.valores[linha * TIPOS + NotaSlot.Tipo.N3.ordinal()] = lerNota(reader);
+                    case "recuperacao" -> notas.valores[linha * TIPOS + NotaSlot.Tipo.REC.ordinal()] = lerNota(reader);
+                    default -> reader.skipValue();
+                }
+            }
+            reader.endObject();
+        }
+        reader.endArray();
+        return notas;
+    }
+
+    /**
+     * Converte uma nota em texto aceitando vírgula ou ponto como separador decimal.
+     * Equivale a {@code Double.parseDouble(texto.replace(',', '.'))}, mas sem alocações no caso comum.
+     * @return O valor, ou NaN se o texto estiver vazio ou não for um número.
+     */
+    public static double converterNota(String texto) {
+        int inicio = 0;
+        int fim = texto.length();
+        while (inicio < fim && texto.charAt(inicio) <= ' ') inicio++;
+        while (fim > inicio && texto.charAt(fim - 1) <= ' ') fim--;
+        if (inicio == fim) {
+            return Double.NaN;
+        }
+
+        int i = inicio;
+        boolean negativo = false;
+        char sinal = texto.charAt(i);
+        if (sinal == '-' || sinal == '+') {
+            negativo = sinal == '-';
+            i++;
+        }
+        long mantissa = 0;
+        int digitos = 0;
+        int casasDecimais = -1; // -1 enquanto não encontrar o separador
+        for (; i < fim; i++) {
+            char c = texto.charAt(i);
+            if (c >= '0' && c <= '9') {
+                mantissa = mantissa * 10 + (c - '0');
+                digitos++;
+                if (casasDecimais >= 0) casasDecimais++;
+            } else if ((c == ',' || c == '.') && casasDecimais < 0) {
+                casasDecimais = 0;
+            } else {
+                break;
+            }
+        }
+        // A divisão por uma potência exata de 10 só é corretamente arredondada (idêntica ao parseDouble)
+        // enquanto a mantissa couber nos 53 bits do double.
+        if (i == fim && digitos > 0 && digitos <= 15 && Math.max(casasDecimais, 0) < POTENCIAS_DE_10.length) {
+            double valor = mantissa / POTENCIAS_DE_10[Math.max(casasDecimais, 0)];
+            return negativo ? -valor : valor;
+        }
+
+        // Formatos incomuns (expoente, muitos dígitos, ...) seguem pelo caminho tradicional.
+        try {
+            return Double.parseDouble(texto.replace(',', '.'));
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+
+    private static boolean iniciarLista(JsonReader reader) throws IOException {
+        try {
+            if (reader.peek() == JsonToken.NULL) {
+                reader.nextNull();
+                return false;
+            }
+        } catch (EOFException e) {
+            return false; // Documento vazio
+        }
+        reader.beginArray();
+        return true;
+    }
+
+    private static String lerTexto(JsonReader reader) throws IOException {
+        if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+            return null;
+        }
+        return reader.nextString();
+    }
+
+    private static double lerNota(JsonReader reader) throws IOException {
+        switch (reader.peek()) {
+            case NUMBER:
+                return reader.nextDouble();
+            case STRING:
+                return converterNota(reader.nextString());
+            default:
+                reader.skipValue();
+                return Double.NaN;
+        }
+    }
+
+    /**
+     * Notas de um arquivo em formato compacto: um RA e quatro valores (N1, N2, N3, REC) por linha,
+     * com NaN para notas ausentes ou inválidas.
+     */
+    public static final class NotasDoArquivo {
+        private String[] ras = new String[32];
+        private double[] valores = new double[32 * TIPOS];
+        private int linhas;
+
+        private int novaLinha() {
+            if (linhas == ras.length) {
+                ras = Arrays.copyOf(ras, linhas * 2);
+                valores = Arrays.copyOf(valores, linhas * 2 * TIPOS);
+            }
+            Arrays.fill(valores, linhas * TIPOS, (linhas + 1) * TIPOS, Double.NaN);
+            return linhas++;
+        }
+
+        public int getLinhas() {
+            return linhas;
+        }
+
+        public String getRa(int linha) {
+            return ras[linha];
+        }
+
+        /**
+         * @return A nota da linha, ou NaN se ela não estiver presente.
+         */
+        public double getValor(int linha, NotaSlot.Tipo tipo) {
+            return valores[linha * TIPOS + tipo.ordinal()];
+        }
+
+        // Formato binário usado pelo CacheCarregamento.
+        void escrever(DataOutputStream out) throws IOException {
+            out.writeInt(linhas);
+            for (int linha = 0; linha < linhas; linha++) {
+                out.writeBoolean(ras[linha] != null);
+                if (ras[linha] != null) {
+                    out.writeUTF(ras[linha]);
+                }
+                for (int tipo = 0; tipo < TIPOS; tipo++) {
+                    out.writeDouble(valores[linha * TIPOS + tipo]);
+                }
+            }
+        }
+
+        static NotasDoArquivo ler(DataInputStream in) throws IOException {
+            int quantidade = in.readInt();
+            NotasDoArquivo notas = new NotasDoArquivo();
+            notas.ras = new String[Math.max(quantidade, 1)];
+            notas.valores = new double[notas.ras.length * TIPOS];
+            for (int linha = 0; linha < quantidade; linha++) {
+                notas.ras[linha] = in.readBoolean() ? in.readUTF() : null;
+                for (int tipo = 0; tipo < TIPOS; tipo++) {
+                    notas.valores[linha * TIPOS + tipo] = in.readDouble();
+                }
+            }
+            notas.linhas = quantidade;
+            return notas;
+        }
+    }
+}
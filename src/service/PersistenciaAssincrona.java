@@ -0,0 +1,260 @@
+package service;
+
+import com.google.gson.Gson;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Gravação em segundo plano (write-behind) dos arquivos JSON.
+ * <p>
+ * Quem chama entrega um instantâneo imutável dos dados de um arquivo; várias entregas para o mesmo
+ * arquivo antes da gravação são combinadas e só a última é escrita. A gravação acontece após um
+ * intervalo sem novas alterações (debounce), ou imediatamente com {@link #descarregar()}.
+ * Cada arquivo é gravado de forma atômica: arquivo temporário, fsync e rename.
+ */
+public class PersistenciaAssincrona {
+
+    public static final long ATRASO_PADRAO_MS = 2000;
+
+    /**
+     * Tarefa executada na thread de gravação, depois das gravações pendentes (ex: compactação do diário).
+     */
+    @FunctionalInterface
+    public interface TarefaDeGravacao {
+        void executar() throws IOException;
+    }
+
+    // Mesmo com edições contínuas, nada fica pendente por mais que este tempo.
+    private static final long ESPERA_MAXIMA_MULTIPLICADOR = 5;
+    private static final long TEMPO_ENCERRAMENTO_SEGUNDOS = 30;
+
+    private final Gson gson;
+    private final long atrasoMs;
+    private final ScheduledExecutorService executor;
+
+    // Protegidos por 'this'. A ordem de inserção é a ordem de gravação.
+    private final Map<Path, Object> pendentes = new LinkedHashMap<>();
+    private ScheduledFuture<?> gravacaoAgendada;
+    private long primeiraPendenciaMs;
+    private boolean encerrado;
+
+    public PersistenciaAssincrona(Gson gson, long atrasoMs) {
+        this.gson = gson;
+        this.atrasoMs = atrasoMs;
+        this.executor = Executors.newSingleThreadScheduledExecutor(tarefa -> {
+            Thread thread = new Thread(tarefa, "persistencia-json");
+            thread.setDaemon(true); // encerrar() drena a fila; a thread não deve impedir a JVM de sair
+            return thread;
+        });
+    }
+
+    /**
+     * Agenda a gravação de {@code dados} (serializado com Gson) em {@code destino}.
+     * {@code dados} não deve ser alterado depois da chamada.
+     */
+    public synchronized void agendar(Path destino, Object dados) {
+        if (encerrado) {
+            throw new IllegalStateException("Persistência já encerrada.");
+        }
+        long agora = System.currentTimeMillis();
+        if (pendentes.isEmpty()) {
+            primeiraPendenciaMs = agora;
+        }
+        pendentes.remove(destino); // Reinsere no fim: a versão mais nova substitui a anterior.
+        pendentes.put(destino, dados);
+
+        // Debounce: adia a gravação a cada alteração, até o limite de espera máxima.
+        long prazoFinal = primeiraPendenciaMs + atrasoMs * ESPERA_MAXIMA_MULTIPLICADOR;
+        long atraso = Math.max(0, Math.min(atrasoMs, prazoFinal - agora));
+        if (gravacaoAgendada != null) {
+            gravacaoAgendada.cancel(false);
+        }
+        gravacaoAgendada = executor.schedule(this::gravarPendentes, atraso, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized boolean possuiPendencias() {
+        return !pendentes.isEmpty();
+    }
+
+    /**
+     * Descarta as gravações ainda não iniciadas (ex: antes de recarregar os dados do disco).
+     */
+    public synchronized void descartarPendencias() {
+        pendentes.clear();
+        if (gravacaoAgendada != null) {
+            gravacaoAgendada.cancel(false);
+            gravacaoAgendada = null;
+        }
+    }
+
+    /**
+     * Grava imediatamente tudo o que está pendente.
+     * @return Um future concluído quando a fila for esvaziada; falha se algum arquivo não pôde ser gravado
+     *         (esses arquivos continuam pendentes para a próxima tentativa).
+     */
+    public CompletableFuture<Void> descarregar() {
+        return descarregar(null);
+    }
+
+    /**
+     * Como {@link #descarregar()}, executando {@code tarefaSeguinte} na thread de gravação logo depois.
+     */
+    public CompletableFuture<Void> descarregar(TarefaDeGravacao tarefaSeguinte) {
+        CompletableFuture<Void> resultado = new CompletableFuture<>();
+        synchronized (this) {
+            if (gravacaoAgendada != null) {
+                gravacaoAgendada.cancel(false);
+                gravacaoAgendada = null;
+            }
+        }
+        executor.execute(() -> {
+            IOException erro = gravarPendentes();
+            if (tarefaSeguinte != null) {
+                erro = executarTarefa(tarefaSeguinte, erro);
+            }
+            if (erro == null) {
+                resultado.complete(null);
+            } else {
+                resultado.completeExceptionally(erro);
+            }
+        });
+        return resultado;
+    }
+
+    /**
+     * Executa a tarefa periodicamente na thread de gravação, sempre depois das gravações pendentes.
+     */
+    public void agendarPeriodicamente(TarefaDeGravacao tarefa, long intervaloMs) {
+        executor.scheduleWithFixedDelay(() -> executarTarefa(tarefa, gravarPendentes()), intervaloMs, intervaloMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Grava o que estiver pendente e encerra a thread de gravação. Chamado ao fechar a aplicação.
+     */
+    public void encerrar() {
+        encerrar(null);
+    }
+
+    /**
+     * Como {@link #encerrar()}, executando {@code tarefaFinal} depois da última gravação.
+     */
+    public void encerrar(TarefaDeGravacao tarefaFinal) {
+        synchronized (this) {
+            if (encerrado) {
+                return;
+            }
+            encerrado = true;
+        }
+        try {
+            descarregar(tarefaFinal).get(TEMPO_ENCERRAMENTO_SEGUNDOS, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            System.err.println("AVISO: Nem todas as alterações puderam ser gravadas ao encerrar: " + e.getMessage());
+        } finally {
+            executor.shutdownNow(); // Cancela as tarefas periódicas; a fila já foi drenada acima
+        }
+    }
+
+    private static IOException executarTarefa(TarefaDeGravacao tarefa, IOException erroAnterior) {
+        try {
+            tarefa.executar();
+            return erroAnterior;
+        } catch (IOException e) {
+            System.err.println("AVISO: Falha em tarefa de gravação: " + e.getMessage());
+            return e;
+        } catch (RuntimeException e) {
+            // Não deixa uma falha inesperada matar a thread de gravação nem cancelar tarefas periódicas.
+            e.printStackTrace();
+            return new IOException(e);
+        }
+    }
+
+    /**
+     * Executado apenas na thread de gravação.
+     * @return O último erro de gravação, ou null se tudo foi gravado.
+     */
+    private IOException gravarPendentes() {
+        List<Map.Entry<Path, Object>> lote;
+        synchronized (this) {
+            lote = new ArrayList<>(pendentes.entrySet());
+            pendentes.clear();
+            gravacaoAgendada = null;
+        }
+        IOException ultimoErro = null;
+        for (Map.Entry<Path, Object> item : lote) {
+            try {
+                gravarAtomicamente(item.getKey(), gson.toJson(item.getValue()).getBytes(StandardCharsets.UTF_8));
+            } catch (IOException e) {
+                ultimoErro = e;
+                System.err.printf("AVISO: Falha ao gravar '%s' (%s). Nova tentativa na próxima gravação.%n", item.getKey(), e.getMessage());
+                synchronized (this) {
+                    // Não sobrescreve uma versão mais nova que chegou enquanto gravávamos.
+                    pendentes.putIfAbsent(item.getKey(), item.getValue());
+                }
+            }
+        }
+        return ultimoErro;
+    }
+
+    /**
+     * Grava o conteúdo em um arquivo temporário na mesma pasta, força a escrita em disco (fsync)
+     * e o renomeia sobre o destino. Leitores nunca veem um arquivo pela metade, mesmo após uma queda.
+     */
+    public static void gravarAtomicamente(Path destino, byte[] conteudo) throws IOException {
+        Path temporario = prepararGravacao(destino, conteudo);
+        try {
+            concluirGravacao(temporario, destino);
+        } finally {
+            Files.deleteIfExists(temporario);
+        }
+    }
+
+    /**
+     * Primeira metade de {@link #gravarAtomicamente}: grava o conteúdo, já em disco, num arquivo temporário
+     * ao lado do destino, sem tocar no destino. Quem chama deve concluir ({@link #concluirGravacao}) ou apagar o temporário.
+     * @return O arquivo temporário.
+     */
+    public static Path prepararGravacao(Path destino, byte[] conteudo) throws IOException {
+        Path pasta = destino.toAbsolutePath().getParent();
+        Files.createDirectories(pasta);
+        Path temporario = Files.createTempFile(pasta, destino.getFileName().toString(), ".tmp");
+        try (FileChannel canal = FileChannel.open(temporario, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.wrap(conteudo);
+            while (buffer.hasRemaining()) {
+                canal.write(buffer);
+            }
+            canal.force(true);
+        } catch (IOException e) {
+            Files.deleteIfExists(temporario);
+            throw e;
+        }
+        return temporario;
+    }
+
+    /**
+     * Segunda metade de {@link #gravarAtomicamente}: renomeia o temporário sobre o destino.
+     */
+    public static void concluirGravacao(Path temporario, Path destino) throws IOException {
+        try {
+            Files.move(temporario, destino, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temporario, destino, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
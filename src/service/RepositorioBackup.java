@@ -0,0 +1,413 @@
+package service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Repositório de backups endereçado por conteúdo, em {@code data/.backup/}.
+ * <p>
+ * Cada versão de arquivo é guardada uma única vez, comprimida com GZIP, em {@code objetos/ab/abcdef...gz},
+ * onde o nome é o SHA-256 do conteúdo original. Um snapshot ({@code snapshots/<id>.txt}) lista apenas os
+ * arquivos que mudaram desde a versão anterior registrada; arquivos iguais não custam nada.
+ * Para restaurar um arquivo em um momento qualquer, usa-se a última versão registrada até aquele momento.
+ */
+public class RepositorioBackup {
+
+    public static final String NOME_DIRETORIO = ".backup";
+
+    private static final DateTimeFormatter FORMATO_ID = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS");
+    private static final String CABECALHO_CRIADO = "# criado ";
+    private static final String CABECALHO_ROTULO = "# rotulo ";
+
+    /**
+     * Uma versão de um arquivo dentro de um snapshot.
+     */
+    public record Versao(String caminho, String hash, long tamanho, String snapshotId, Instant criado) {}
+
+    /**
+     * Um snapshot e as versões de arquivo registradas nele.
+     */
+    public record Snapshot(String id, Instant criado, String rotulo, List<Versao> versoes) {}
+
+    /**
+     * Resumo de uma poda: snapshots removidos e objetos apagados por não serem mais referenciados.
+     */
+    public record ResultadoPoda(int snapshotsRemovidos, int objetosRemovidos, long bytesLiberados) {}
+
+    private final Path diretorioDados;
+    private final Path diretorioObjetos;
+    private final Path diretorioSnapshots;
+
+    public RepositorioBackup(String dataDirectoryPath) {
+        this.diretorioDados = Path.of(dataDirectoryPath).toAbsolutePath().normalize();
+        Path raiz = diretorioDados.resolve(NOME_DIRETORIO);
+        this.diretorioObjetos = raiz.resolve("objetos");
+        this.diretorioSnapshots = raiz.resolve("snapshots");
+    }
+
+    // --- Criação ---
+
+    /**
+     * Todos os arquivos JSON da pasta 'data', ignorando pastas ocultas (cache, backups) e as antigas pastas 'backup'.
+     */
+    public List<Path> listarArquivosDeDados() throws IOException {
+        List<Path> arquivos = new ArrayList<>();
+        Files.walkFileTree(diretorioDados, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                String nome = dir.getFileName() == null ? "" : dir.getFileName().toString();
+                boolean ignorar = !dir.equals(diretorioDados) && (nome.startsWith(".") || nome.equalsIgnoreCase("backup"));
+                return ignorar ? FileVisitResult.SKIP_SUBTREE : FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path arquivo, BasicFileAttributes attrs) {
+                if (attrs.isRegularFile() && arquivo.getFileName().toString().toLowerCase().endsWith(".json")) {
+                    arquivos.add(arquivo);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        Collections.sort(arquivos);
+        return arquivos;
+    }
+
+    /**
+     * Registra a versão atual dos arquivos informados. Só entram no snapshot os arquivos cujo conteúdo
+     * difere da última versão registrada; conteúdos já conhecidos reaproveitam o objeto existente.
+     * @return O snapshot criado, ou null se nenhum arquivo mudou.
+     */
+    public Snapshot criarSnapshot(Collection<Path> arquivos, String rotulo) throws IOException {
+        Map<String, Versao> ultimas = ultimasVersoes(null);
+        Instant agora = Instant.now();
+        String id = novoId(agora);
+
+        List<Versao> alteradas = new ArrayList<>();
+        for (Path arquivo : arquivos) {
+            Path absoluto = arquivo.toAbsolutePath().normalize();
+            if (!Files.isRegularFile(absoluto)) {
+                System.err.printf("AVISO: '%s' não existe e não entrou no backup.%n", arquivo);
+                continue;
+            }
+            String caminho = caminhoRelativo(absoluto);
+            byte[] conteudo = Files.readAllBytes(absoluto);
+            String hash = sha256(conteudo);
+            Versao anterior = ultimas.get(caminho);
+            if (anterior != null && anterior.hash().equals(hash)) {
+                continue; // Sem mudanças desde o último backup
+            }
+            guardarObjeto(hash, conteudo);
+            alteradas.add(new Versao(caminho, hash, conteudo.length, id, agora));
+        }
+        if (alteradas.isEmpty()) {
+            return null;
+        }
+        Snapshot snapshot = new Snapshot(id, agora, rotulo, alteradas);
+        gravarManifesto(snapshot);
+        return snapshot;
+    }
+
+    // --- Consulta ---
+
+    /**
+     * Snapshots do mais antigo para o mais novo.
+     */
+    public List<Snapshot> listarSnapshots() throws IOException {
+        List<Snapshot> snapshots = new ArrayList<>();
+        if (!Files.isDirectory(diretorioSnapshots)) {
+            return snapshots;
+        }
+        List<Path> manifestos = new ArrayList<>();
+        try (DirectoryStream<Path> arquivos = Files.newDirectoryStream(diretorioSnapshots, "*.txt")) {
+            arquivos.forEach(manifestos::add);
+        }
+        Collections.sort(manifestos); // O id começa pela data, então a ordem alfabética é a cronológica.
+        for (Path manifesto : manifestos) {
+            snapshots.add(lerManifesto(manifesto));
+        }
+        return snapshots;
+    }
+
+    /**
+     * Versões registradas de um arquivo (caminho relativo à pasta 'data'), da mais antiga para a mais nova.
+     */
+    public List<Versao> historico(String caminho) throws IOException {
+        String normalizado = normalizarCaminho(caminho);
+        List<Versao> versoes = new ArrayList<>();
+        for (Snapshot snapshot : listarSnapshots()) {
+            for (Versao versao : snapshot.versoes()) {
+                if (versao.caminho().equals(normalizado)) {
+                    versoes.add(versao);
+                }
+            }
+        }
+        return versoes;
+    }
+
+    /**
+     * Última versão de cada arquivo registrada até {@code momento} (inclusive), ou até agora se for null.
+     */
+    public Map<String, Versao> ultimasVersoes(Instant momento) throws IOException {
+        Map<String, Versao> ultimas = new TreeMap<>();
+        for (Snapshot snapshot : listarSnapshots()) {
+            if (momento != null && snapshot.criado().isAfter(momento)) {
+                break;
+            }
+            for (Versao versao : snapshot.versoes()) {
+                ultimas.put(versao.caminho(), versao);
+            }
+        }
+        return ultimas;
+    }
+
+    // --- Restauração ---
+
+    /**
+     * Restaura um arquivo para o conteúdo que tinha em {@code momento}.
+     * @param destino Onde gravar; se null, sobrescreve o próprio arquivo na pasta 'data'.
+     * @return A versão restaurada.
+     */
+    public Versao restaurar(String caminho, Instant momento, Path destino) throws IOException {
+        Versao versao = ultimasVersoes(momento).get(normalizarCaminho(caminho));
+        if (versao == null) {
+            throw new IOException("Não há backup de '" + caminho + "' até o momento informado.");
+        }
+        restaurarVersao(versao, destino != null ? destino : diretorioDados.resolve(versao.caminho()));
+        return versao;
+    }
+
+    /**
+     * Restaura todos os arquivos com backup para o conteúdo que tinham em {@code momento}.
+     * Arquivos criados depois desse momento não são alterados.
+     * @return As versões restauradas.
+     */
+    public List<Versao> restaurarTudo(Instant momento) throws IOException {
+        List<Versao> restauradas = new ArrayList<>();
+        for (Versao versao : ultimasVersoes(momento).values()) {
+            Path arquivo = diretorioDados.resolve(versao.caminho());
+            if (Files.isRegularFile(arquivo) && sha256(Files.readAllBytes(arquivo)).equals(versao.hash())) {
+                continue; // Já está com o conteúdo certo
+            }
+            restaurarVersao(versao, arquivo);
+            restauradas.add(versao);
+        }
+        return restauradas;
+    }
+
+    private void restaurarVersao(Versao versao, Path destino) throws IOException {
+        byte[] conteudo = lerObjeto(versao.hash());
+        if (!sha256(conteudo).equals(versao.hash())) {
+            throw new IOException("Objeto de backup corrompido: " + versao.hash());
+        }
+        PersistenciaAssincrona.gravarAtomicamente(destino, conteudo);
+    }
+
+    // --- Retenção e poda ---
+
+    /**
+     * Remove snapshots fora da política de retenção e apaga os objetos que deixaram de ser referenciados.
+     * Um snapshot é mantido se estiver entre os {@code manterUltimos} mais recentes ou tiver menos de
+     * {@code manterDias} dias. Para que a restauração em qualquer momento ainda retido continue correta,
+     * as últimas versões dos snapshots removidos são incorporadas ao snapshot mais antigo que fica.
+     */
+    public ResultadoPoda podar(int manterUltimos, int manterDias) throws IOException {
+        List<Snapshot> snapshots = listarSnapshots();
+        Instant limite = Instant.now().minusSeconds(manterDias * 86_400L);
+        int primeiroMantido = snapshots.size();
+        for (int i = 0; i < snapshots.size(); i++) {
+            boolean entreOsUltimos = i >= snapshots.size() - manterUltimos;
+            if (entreOsUltimos || !snapshots.get(i).criado().isBefore(limite)) {
+                primeiroMantido = i;
+                break;
+            }
+        }
+
+        int removidos = 0;
+        if (primeiroMantido > 0 && primeiroMantido < snapshots.size()) {
+            // Base: última versão de cada arquivo entre os snapshots removidos, para arquivos que o
+            // snapshot mais antigo mantido ainda não registra.
+            Map<String, Versao> base = new LinkedHashMap<>();
+            for (int i = 0; i < primeiroMantido; i++) {
+                for (Versao versao : snapshots.get(i).versoes()) {
+                    base.put(versao.caminho(), versao);
+                }
+            }
+            Snapshot maisAntigo = snapshots.get(primeiroMantido);
+            for (Versao versao : maisAntigo.versoes()) {
+                base.remove(versao.caminho());
+            }
+            if (!base.isEmpty()) {
+                List<Versao> versoes = new ArrayList<>(base.values());
+                versoes.addAll(maisAntigo.versoes());
+                gravarManifesto(new Snapshot(maisAntigo.id(), maisAntigo.criado(), maisAntigo.rotulo(), versoes));
+            }
+            for (int i = 0; i < primeiroMantido; i++) {
+                Files.deleteIfExists(caminhoManifesto(snapshots.get(i).id()));
+                removidos++;
+            }
+        }
+        // Com todos os snapshots dentro da política (ou nenhum), nada é removido além do lixo de objetos.
+        return coletarObjetosNaoReferenciados(removidos);
+    }
+
+    private ResultadoPoda coletarObjetosNaoReferenciados(int snapshotsRemovidos) throws IOException {
+        Set<String> referenciados = new HashSet<>();
+        for (Snapshot snapshot : listarSnapshots()) {
+            for (Versao versao : snapshot.versoes()) {
+                referenciados.add(versao.hash());
+            }
+        }
+        int objetosRemovidos = 0;
+        long bytesLiberados = 0;
+        if (Files.isDirectory(diretorioObjetos)) {
+            List<Path> objetos = new ArrayList<>();
+            Files.walkFileTree(diretorioObjetos, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult visitFile(Path arquivo, BasicFileAttributes attrs) {
+                    objetos.add(arquivo);
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+            for (Path objeto : objetos) {
+                String nome = objeto.getFileName().toString();
+                String hash = nome.endsWith(".gz") ? nome.substring(0, nome.length() - 3) : nome;
+                if (!referenciados.contains(hash)) {
+                    bytesLiberados += Files.size(objeto);
+                    Files.delete(objeto);
+                    objetosRemovidos++;
+                }
+            }
+        }
+        return new ResultadoPoda(snapshotsRemovidos, objetosRemovidos, bytesLiberados);
+    }
+
+    // --- Objetos ---
+
+    private Path caminhoObjeto(String hash) {
+        return diretorioObjetos.resolve(hash.substring(0, 2)).resolve(hash + ".gz");
+    }
+
+    private void guardarObjeto(String hash, byte[] conteudo) throws IOException {
+        Path objeto = caminhoObjeto(hash);
+        if (Files.exists(objeto)) {
+            return; // Conteúdo já armazenado: deduplicado
+        }
+        ByteArrayOutputStream comprimido = new ByteArrayOutputStream(conteudo.length / 4 + 64);
+        try (OutputStream gzip = new GZIPOutputStream(comprimido)) {
+            gzip.write(conteudo);
+        }
+        PersistenciaAssincrona.gravarAtomicamente(objeto, comprimido.toByteArray());
+    }
+
+    private byte[] lerObjeto(String hash) throws IOException {
+        Path objeto = caminhoObjeto(hash);
+        if (!Files.exists(objeto)) {
+            throw new IOException("Objeto de backup não encontrado: " + hash);
+        }
+        try (InputStream gzip = new GZIPInputStream(Files.newInputStream(objeto))) {
+            return gzip.readAllBytes();
+        }
+    }
+
+    // --- Manifestos ---
+
+    private Path caminhoManifesto(String id) {
+        return diretorioSnapshots.resolve(id + ".txt");
+    }
+
+    private String novoId(Instant momento) {
+        String base = LocalDateTime.ofInstant(momento, ZoneId.systemDefault()).format(FORMATO_ID);
+        String id = base;
+        for (int sufixo = 1; Files.exists(caminhoManifesto(id)); sufixo++) {
+            id = base + "-" + sufixo;
+        }
+        return id;
+    }
+
+    private void gravarManifesto(Snapshot snapshot) throws IOException {
+        StringBuilder texto = new StringBuilder();
+        texto.append(CABECALHO_CRIADO).append(snapshot.criado().toEpochMilli()).append('\n');
+        if (snapshot.rotulo() != null && !snapshot.rotulo().isBlank()) {
+            texto.append(CABECALHO_ROTULO).append(snapshot.rotulo().replace('\n', ' ')).append('\n');
+        }
+        for (Versao versao : snapshot.versoes()) {
+            texto.append(versao.hash()).append('\t').append(versao.tamanho()).append('\t').append(versao.caminho()).append('\n');
+        }
+        PersistenciaAssincrona.gravarAtomicamente(caminhoManifesto(snapshot.id()), texto.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Snapshot lerManifesto(Path manifesto) throws IOException {
+        String nome = manifesto.getFileName().toString();
+        String id = nome.substring(0, nome.length() - ".txt".length());
+        Instant criado = Instant.ofEpochMilli(Files.getLastModifiedTime(manifesto).toMillis());
+        String rotulo = null;
+        List<String[]> entradas = new ArrayList<>();
+        for (String linha : Files.readAllLines(manifesto, StandardCharsets.UTF_8)) {
+            if (linha.startsWith(CABECALHO_CRIADO)) {
+                criado = Instant.ofEpochMilli(Long.parseLong(linha.substring(CABECALHO_CRIADO.length()).trim()));
+            } else if (linha.startsWith(CABECALHO_ROTULO)) {
+                rotulo = linha.substring(CABECALHO_ROTULO.length());
+            } else if (!linha.isBlank() && !linha.startsWith("#")) {
+                String[] partes = linha.split("\t", 3);
+                if (partes.length == 3) {
+                    entradas.add(partes);
+                }
+            }
+        }
+        // O cabeçalho vem antes das entradas, mas 'criado' só é conhecido depois de lido.
+        List<Versao> versoes = new ArrayList<>(entradas.size());
+        for (String[] partes : entradas) {
+            versoes.add(new Versao(partes[2], partes[0], Long.parseLong(partes[1]), id, criado));
+        }
+        return new Snapshot(id, criado, rotulo, versoes);
+    }
+
+    // --- Utilitários ---
+
+    private String caminhoRelativo(Path absoluto) {
+        return diretorioDados.relativize(absoluto).toString().replace('\\', '/');
+    }
+
+    private String normalizarCaminho(String caminho) {
+        Path informado = Path.of(caminho);
+        if (informado.isAbsolute()) {
+            return caminhoRelativo(informado.normalize());
+        }
+        return caminho.replace('\\', '/');
+    }
+
+    private static String sha256(byte[] conteudo) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(conteudo));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 não disponível", e); // Obrigatório em toda JVM
+        }
+    }
+}
@@ -0,0 +1,243 @@
+package tools;
+
+import service.RepositorioBackup;
+import service.RepositorioBackup.ResultadoPoda;
+import service.RepositorioBackup.Snapshot;
+import service.RepositorioBackup.Versao;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Scanner;
+
+/**
+ * Linha de comando do repositório de backups (ver {@link RepositorioBackup}).
+ * <p>
+ * Uso: {@code BackupNotas [--data pasta] <comando> ...}
+ * <ul>
+ *   <li>{@code snapshot [--rotulo texto] [arquivos...]} registra os arquivos (todos os JSON de 'data' se nenhum for informado)</li>
+ *   <li>{@code listar} mostra os snapshots</li>
+ *   <li>{@code historico <arquivo>} mostra as versões de um arquivo</li>
+ *   <li>{@code restaurar <arquivo|--tudo> [--em data-hora] [--destino arquivo]} restaura o conteúdo de um momento</li>
+ *   <li>{@code podar [--manter-ultimos N] [--manter-dias D]} aplica a política de retenção</li>
+ * </ul>
+ * Sem argumentos, abre um menu interativo. Termina com código 1 em caso de erro, para uso nos scripts.
+ */
+public class BackupNotas {
+
+    private static final String DATA_DIR_PADRAO = "D:/Local/Dev/Java/notas_java/data";
+    public static final int MANTER_ULTIMOS_PADRAO = 30;
+    public static final int MANTER_DIAS_PADRAO = 90;
+
+    private static final DateTimeFormatter FORMATO_DATA_HORA = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss");
+
+    public static void main(String[] args) {
+        if (args.length == 0) {
+            menu(new Scanner(System.in), DATA_DIR_PADRAO);
+            return;
+        }
+        try {
+            executar(new ArrayList<>(List.of(args)));
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("ERRO: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Menu interativo usado pelo app.Main (reaproveita o Scanner dele para não disputar o System.in).
+     */
+    public static void menu(Scanner scanner, String dataDir) {
+        RepositorioBackup repositorio = new RepositorioBackup(dataDir);
+        boolean voltar = false;
+        while (!voltar) {
+            System.out.println("\n--- Backup dos Arquivos de Dados ---");
+            System.out.println("  [1] Criar snapshot de todos os arquivos");
+            System.out.println("  [2] Listar snapshots");
+            System.out.println("  [3] Histórico de um arquivo");
+            System.out.println("  [4] Restaurar um arquivo");
+            System.out.println("  [5] Podar backups antigos");
+            System.out.println("  [0] Voltar");
+            System.out.print("\nDigite sua escolha: ");
+            String escolha = scanner.nextLine().trim();
+            try {
+                switch (escolha) {
+                    case "1" -> criarSnapshot(repositorio, List.of(), "manual");
+                    case "2" -> listar(repositorio);
+                    case "3" -> {
+                        System.out.print("Arquivo (relativo à pasta data, ex: notas_json/notas_1A_MAT_T1.json): ");
+                        historico(repositorio, scanner.nextLine().trim());
+                    }
+                    case "4" -> {
+                        System.out.print("Arquivo (relativo à pasta data): ");
+                        String arquivo = scanner.nextLine().trim();
+                        System.out.print("Momento (dd/MM/yyyy HH:mm, vazio = versão mais recente): ");
+                        String momento = scanner.nextLine().trim();
+                        restaurar(repositorio, arquivo, momento.isEmpty() ? null : converterMomento(momento), null);
+                    }
+                    case "5" -> podar(repositorio, MANTER_ULTIMOS_PADRAO, MANTER_DIAS_PADRAO);
+                    case "0" -> voltar = true;
+                    default -> System.out.println("\nOpção inválida. Tente novamente.");
+                }
+            } catch (IOException | IllegalArgumentException e) {
+                System.err.println("ERRO: " + e.getMessage());
+            }
+        }
+    }
+
+    private static void executar(List<String> args) throws IOException {
+        String dataDir = extrairOpcao(args, "--data", DATA_DIR_PADRAO);
+        RepositorioBackup repositorio = new RepositorioBackup(dataDir);
+        if (args.isEmpty()) {
+            throw new IllegalArgumentException("Informe um comando: snapshot, listar, historico, restaurar ou podar.");
+        }
+        String comando = args.remove(0);
+        switch (comando) {
+            case "snapshot" -> {
+                String rotulo = extrairOpcao(args, "--rotulo", "manual");
+                List<Path> arquivos = new ArrayList<>();
+                args.forEach(arquivo -> arquivos.add(Path.of(arquivo)));
+                criarSnapshot(repositorio, arquivos, rotulo);
+            }
+            case "listar" -> listar(repositorio);
+            case "historico" -> historico(repositorio, argumentoUnico(args, "historico <arquivo>"));
+            case "restaurar" -> {
+                String momento = extrairOpcao(args, "--em", null);
+                String destino = extrairOpcao(args, "--destino", null);
+                restaurar(repositorio, argumentoUnico(args, "restaurar <arquivo|--tudo>"),
+                        momento == null ? null : converterMomento(momento), destino == null ? null : Path.of(destino));
+            }
+            case "podar" -> {
+                int manterUltimos = Integer.parseInt(extrairOpcao(args, "--manter-ultimos", String.valueOf(MANTER_ULTIMOS_PADRAO)));
+                int manterDias = Integer.parseInt(extrairOpcao(args, "--manter-dias", String.valueOf(MANTER_DIAS_PADRAO)));
+                podar(repositorio, manterUltimos, manterDias);
+            }
+            default -> throw new IllegalArgumentException("Comando desconhecido: " + comando);
+        }
+    }
+
+    private static void criarSnapshot(RepositorioBackup repositorio, List<Path> arquivos, String rotulo) throws IOException {
+        List<Path> alvos = arquivos.isEmpty() ? repositorio.listarArquivosDeDados() : arquivos;
+        Snapshot snapshot = repositorio.criarSnapshot(alvos, rotulo);
+        if (snapshot == null) {
+            System.out.printf("Nenhuma alteração em %d arquivo(s): nada a registrar.%n", alvos.size());
+        } else {
+            System.out.printf("Snapshot %s criado: %d de %d arquivo(s) alterado(s).%n", snapshot.id(), snapshot.versoes().size(), alvos.size());
+        }
+    }
+
+    private static void listar(RepositorioBackup repositorio) throws IOException {
+        List<Snapshot> snapshots = repositorio.listarSnapshots();
+        if (snapshots.isEmpty()) {
+            System.out.println("Nenhum snapshot registrado.");
+            return;
+        }
+        for (Snapshot snapshot : snapshots) {
+            System.out.printf("%s  %s  %3d arquivo(s)  %s%n", snapshot.id(), formatar(snapshot.criado()),
+                    snapshot.versoes().size(), snapshot.rotulo() == null ? "" : snapshot.rotulo());
+        }
+    }
+
+    private static void historico(RepositorioBackup repositorio, String arquivo) throws IOException {
+        List<Versao> versoes = repositorio.historico(arquivo);
+        if (versoes.isEmpty()) {
+            System.out.println("Nenhuma versão registrada de '" + arquivo + "'.");
+            return;
+        }
+        for (Versao versao : versoes) {
+            System.out.printf("%s  %s  %8d bytes  %s%n", formatar(versao.criado()), versao.snapshotId(),
+                    versao.tamanho(), versao.hash().substring(0, 12));
+        }
+    }
+
+    private static void restaurar(RepositorioBackup repositorio, String arquivo, Instant momento, Path destino) throws IOException {
+        Instant ate = momento != null ? momento : Instant.now();
+        if (arquivo.equals("--tudo")) {
+            List<Versao> restauradas = repositorio.restaurarTudo(ate);
+            System.out.printf("%d arquivo(s) restaurado(s) para %s.%n", restauradas.size(), formatar(ate));
+            return;
+        }
+        Versao versao = repositorio.restaurar(arquivo, ate, destino);
+        System.out.printf("'%s' restaurado para a versão de %s (snapshot %s).%n", versao.caminho(), formatar(versao.criado()), versao.snapshotId());
+    }
+
+    private static void podar(RepositorioBackup repositorio, int manterUltimos, int manterDias) throws IOException {
+        ResultadoPoda resultado = repositorio.podar(manterUltimos, manterDias);
+        System.out.printf("Poda concluída: %d snapshot(s) e %d objeto(s) removidos (%d KB liberados).%n",
+                resultado.snapshotsRemovidos(), resultado.objetosRemovidos(), resultado.bytesLiberados() / 1024);
+    }
+
+    // --- Argumentos ---
+
+    private static String extrairOpcao(List<String> args, String nome, String padrao) {
+        int indice = args.indexOf(nome);
+        if (indice < 0) {
+            return padrao;
+        }
+        if (indice + 1 >= args.size()) {
+            throw new IllegalArgumentException("Valor ausente para " + nome);
+        }
+        String valor = args.get(indice + 1);
+        args.subList(indice, indice + 2).clear();
+        return valor;
+    }
+
+    private static String argumentoUnico(List<String> args, String uso) {
+        if (args.size() != 1) {
+            throw new IllegalArgumentException("Uso: " + uso);
+        }
+        return args.get(0);
+    }
+
+    /**
+     * Aceita "dd/MM/yyyy HH:mm[:ss]", "dd/MM/yyyy" ou ISO ("2024-05-10T14:30[:ss]").
+     * O momento inclui o minuto (ou segundo, ou dia) inteiro informado: "10/05/2024 14:30" vale até 14:30:59.999.
+     */
+    static Instant converterMomento(String texto) {
+        ZoneId zona = ZoneId.systemDefault();
+        long restoDaUnidadeMs = texto.chars().filter(c -> c == ':').count() >= 2 ? 999 : 59_999;
+        try {
+            return LocalDateTime.parse(texto, DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm[:ss]")).atZone(zona).toInstant().plusMillis(restoDaUnidadeMs);
+        } catch (DateTimeParseException ignorada) {
+            // Tenta os outros formatos
+        }
+        try {
+            return LocalDate.parse(texto, DateTimeFormatter.ofPattern("dd/MM/yyyy")).plusDays(1).atStartOfDay(zona).toInstant().minusMillis(1);
+        } catch (DateTimeParseException ignorada) {
+            // Tenta o formato ISO
+        }
+        try {
+            return LocalDateTime.parse(texto).atZone(zona).toInstant().plusMillis(restoDaUnidadeMs);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Data/hora inválida: " + texto);
+        }
+    }
+
+    private static String formatar(Instant momento) {
+        return LocalDateTime.ofInstant(momento, ZoneId.systemDefault()).format(FORMATO_DATA_HORA);
+    }
+
+    /**
+     * Snapshot dos arquivos informados, usado por outras ferramentas antes de sobrescrevê-los.
+     * Uma falha no backup só gera aviso. Sincronizado: pode ser chamado por várias threads de gravação.
+     */
+    static synchronized void snapshotAntesDe(String dataDir, Collection<Path> arquivos, String motivo) {
+        try {
+            RepositorioBackup repositorio = new RepositorioBackup(dataDir);
+            Snapshot snapshot = repositorio.criarSnapshot(arquivos, motivo);
+            if (snapshot != null) {
+                System.out.printf("Backup %s criado (%d arquivo(s) alterado(s) desde o último).%n", snapshot.id(), snapshot.versoes().size());
+            }
+        } catch (IOException e) {
+            System.err.println("AVISO: Não foi possível criar o backup dos arquivos: " + e.getMessage());
+        }
+    }
+}
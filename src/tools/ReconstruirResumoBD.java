@@ -0,0 +1,34 @@
+package tools;
+
+import dao.ConexaoBD;
+import dao.ResumoSituacaoDAO;
+import dao.VersaoDadosDAO;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Ferramenta que recalcula do zero o resumo de situações usado pelo Dashboard (tabela situacao_resumo).
+ * A sincronização mantém o resumo atualizado sozinha; use esta ferramenta se o banco tiver sido alterado
+ * por fora da aplicação ou se os números do Dashboard não baterem com as notas.
+ */
+public class ReconstruirResumoBD {
+
+    public static void main(String[] args) {
+        System.out.println("--- RECONSTRUINDO O RESUMO DE SITUAÇÕES DO BANCO DE DADOS ---");
+
+        try (Connection conn = ConexaoBD.conectar()) {
+            conn.setAutoCommit(false);
+            int linhas = new ResumoSituacaoDAO(conn).reconstruir();
+            new VersaoDadosDAO(conn).incrementar();
+            conn.commit();
+            System.out.println("Resumo reconstruído: " + linhas + " linha(s) por turma, disciplina e situação.");
+        } catch (SQLException e) {
+            System.err.println("ERRO ao reconstruir o resumo de situações: " + e.getMessage());
+            e.printStackTrace();
+            // O try-with-resources devolve a conexão ao pool, que desfaz a transação não confirmada.
+        }
+
+        System.out.println("\n--- RECONSTRUÇÃO CONCLUÍDA ---");
+    }
+}
@@ -2,114 +2,260 @@ package tools;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import dao.CarregadorBD;
 import dao.ConexaoBD;
-import dao.AlunoDAO;
-import dao.DisciplinaDAO;
-import dao.TurmaDAO;
 import dto.AlunoDTO;
 import dto.NotaDTO;
 import model.Aluno;
 import model.Disciplina;
+import model.NotaSlot;
 import model.Turma;
+import service.GerenciadorDeDados;
+import service.PersistenciaAssincrona;
 
-import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
-import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
+/**
+ * Recria os arquivos JSON de alunos e notas a partir do banco de dados.
+ * <p>
+ * O banco é lido turma a turma ({@link CarregadorBD#percorrerPorTurma}) e cada turma é processada em paralelo
+ * enquanto a próxima é lida; no máximo {@link #TURMAS_SIMULTANEAS} turmas ficam em memória ao mesmo tempo.
+ * Um arquivo só é regravado quando o conteúdo gerado difere do que está em disco. O novo conteúdo vai primeiro
+ * para um arquivo temporário ao lado do original; depois da leitura do banco inteiro, é feito um único backup
+ * de todos os arquivos que vão mudar, e só então os temporários substituem os originais.
+ * Se a leitura do banco ou a preparação de alguma turma falhar, nenhum arquivo é substituído. Em qualquer falha
+ * o diário de alterações é mantido e o processo termina com código de saída 1.
+ * <p>
+ * Uso: {@code RestauradorBD [--lote <linhas>]}, onde {@code --lote} é o fetch size da consulta (padrão 1000).
+ */
 public class RestauradorBD {
 
+    private static final int TAMANHO_DO_LOTE_PADRAO = 1000;
+    // Turmas lidas e ainda não processadas; a leitura do banco espera quando o limite é atingido.
+    private static final int TURMAS_SIMULTANEAS = 4;
+
     public static void main(String[] args) {
+        if (!restaurar(args)) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Executa a restauração (usado pelo app.Main, que não deve ser encerrado por uma falha).
+     * @return false se alguma turma ou arquivo falhou; nesse caso o diário de alterações é mantido.
+     */
+    public static boolean restaurar(String[] args) {
         System.out.println("--- INICIANDO RESTAURAÇÃO A PARTIR DO BANCO DE DADOS ---");
 
-        try (Connection conn = ConexaoBD.conectar()) {
-            TurmaDAO turmaDAO = new TurmaDAO(conn);
-            DisciplinaDAO disciplinaDAO = new DisciplinaDAO(conn);
-            AlunoDAO alunoDAO = new AlunoDAO(conn);
-
-            // 1. Carrega todos os dados do banco de dados para a memória
-            System.out.println("\nCarregando dados do banco de dados...");
-            List<Turma> turmas = turmaDAO.buscarTodas();
-            for (Turma turma : turmas) {
-                List<Disciplina> disciplinas = disciplinaDAO.buscarPorTurmaId(turma.getId());
-                disciplinas.forEach(turma::adicionarDisciplina);
-
-                List<Aluno> alunos = alunoDAO.buscarPorTurmaId(turma.getId());
-                for (Aluno aluno : alunos) {
-                    aluno.getNotas().addAll(alunoDAO.buscarNotasPorAlunoId(aluno.getId()));
-                    turma.adicionarAluno(aluno);
+        int tamanhoDoLote = TAMANHO_DO_LOTE_PADRAO;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--lote") && i + 1 < args.length) {
+                try {
+                    tamanhoDoLote = Integer.parseInt(args[++i]);
+                } catch (NumberFormatException e) {
+                    tamanhoDoLote = 0;
                 }
-            }
-            System.out.println("Dados carregados: " + turmas.size() + " turmas encontradas.");
-
-            // 2. Salva os arquivos JSON a partir dos dados carregados
-            System.out.println("\nRecriando arquivos JSON...");
-            Gson gson = new GsonBuilder().setPrettyPrinting().create();
-            String dataDir = "D:/Local/Dev/Java/notas_java/data";
-
-            for (Turma turma : turmas) {
-                // Salva a lista de alunos da turma
-                List<AlunoDTO> alunosDTO = turma.getAlunos().stream()
-                        .map(a -> new AlunoDTO(a.getNome(), a.getRa()))
-                        .collect(Collectors.toList());
-                String caminhoAlunos = dataDir + File.separator + "turmas" + File.separator + turma.getCodigoTurma() + ".json";
-                salvarJson(alunosDTO, caminhoAlunos, gson);
-
-                // Salva os arquivos de notas
-                for (Disciplina disciplina : turma.getDisciplinas()) {
-                    for (int trimestre = 1; trimestre <= 3; trimestre++) {
-                        // Reutiliza a lógica de salvar notas do GerenciadorDeDados
-                        // (A lógica foi copiada aqui para manter a ferramenta independente)
-                        salvarNotasPorTurmaDisciplinaTrimestre(turma, disciplina, trimestre, dataDir + "/notas_json", gson);
-                    }
+                if (tamanhoDoLote < 1) {
+                    System.err.println("AVISO: Tamanho de lote inválido '" + args[i] + "'. Usando " + TAMANHO_DO_LOTE_PADRAO + ".");
+                    tamanhoDoLote = TAMANHO_DO_LOTE_PADRAO;
                 }
             }
+        }
+
+        String dataDir = "D:/Local/Dev/Java/notas_java/data";
+        Gson gson = new GsonBuilder().setPrettyPrinting().create();
+        // Destino -> temporário com o novo conteúdo, para os arquivos que mudaram.
+        Map<Path, Path> preparados = new ConcurrentHashMap<>();
+        AtomicInteger inalterados = new AtomicInteger();
+        // Turmas e arquivos que falharam, de qualquer thread.
+        List<String> falhas = Collections.synchronizedList(new ArrayList<>());
+        Semaphore turmasEmAndamento = new Semaphore(TURMAS_SIMULTANEAS);
+
+        System.out.println("\nLendo o banco de dados e preparando os arquivos JSON...");
+        try (Connection conn = ConexaoBD.conectar()) {
+            int turmas;
+            // O fechamento do executor espera todas as turmas em andamento.
+            try (ExecutorService processadores = Executors.newVirtualThreadPerTaskExecutor()) {
+                turmas = new CarregadorBD(conn).percorrerPorTurma(tamanhoDoLote, turma -> {
+                    turmasEmAndamento.acquireUninterruptibly();
+                    processadores.execute(() -> {
+                        try {
+                            prepararTurma(turma, dataDir, gson, preparados, inalterados, falhas);
+                        } catch (RuntimeException e) {
+                            falhas.add("turma " + turma.getCodigoTurma() + ": " + e);
+                            e.printStackTrace();
+                        } finally {
+                            turmasEmAndamento.release();
+                        }
+                    });
+                });
+            }
+
+            if (!falhas.isEmpty()) {
+                // Com alguma turma incompleta, nenhum arquivo é substituído: os arquivos continuam coerentes com o diário.
+                descartarPreparados(preparados);
+                reportarFalhas(falhas);
+                return false;
+            }
+
+            int gravados = substituirArquivos(dataDir, preparados, falhas);
+            System.out.printf("%d turma(s) lida(s): %d arquivo(s) gravado(s), %d sem alterações.%n", turmas, gravados, inalterados.get());
+            if (!falhas.isEmpty()) {
+                reportarFalhas(falhas);
+                return false;
+            }
+
+            // Os arquivos agora refletem o banco: alterações antigas do diário não devem ser reaplicadas.
+            try {
+                GerenciadorDeDados.descartarDiario(dataDir);
+            } catch (IOException e) {
+                System.err.println("AVISO: Não foi possível limpar o diário de alterações: " + e.getMessage());
+            }
         } catch (SQLException e) {
             System.err.println("ERRO CRÍTICO durante a restauração do banco de dados: " + e.getMessage());
             e.printStackTrace();
+            descartarPreparados(preparados); // Nada foi substituído
+            return false;
         }
 
         System.out.println("\n--- RESTAURAÇÃO CONCLUÍDA ---");
+        return true;
+    }
+
+    private static void reportarFalhas(List<String> falhas) {
+        System.err.println("ERRO: A restauração falhou em " + falhas.size() + " item(ns); o diário de alterações foi mantido.");
+        for (String falha : falhas) {
+            System.err.println(" -> " + falha);
+        }
+        System.out.println("\n--- RESTAURAÇÃO NÃO CONCLUÍDA ---");
     }
 
-    private static void salvarJson(Object data, String caminho, Gson gson) {
-        try (Writer writer = new FileWriter(caminho)) {
-            gson.toJson(data, writer);
-            System.out.println(" -> Arquivo salvo: " + caminho);
+    /**
+     * Gera os arquivos da turma (lista de alunos e um arquivo de notas por disciplina e trimestre) e grava
+     * em temporários os que diferem do que está em disco.
+     */
+    private static void prepararTurma(Turma turma, String dataDir, Gson gson, Map<Path, Path> preparados, AtomicInteger inalterados,
+                                      List<String> falhas) {
+        Map<Path, byte[]> conteudos = new LinkedHashMap<>();
+
+        // Lista de alunos da turma
+        List<AlunoDTO> alunosDTO = turma.getAlunos().stream()
+                .map(a -> new AlunoDTO(a.getNome(), a.getRa()))
+                .collect(Collectors.toList());
+        conteudos.put(Paths.get(dataDir, "turmas", turma.getCodigoTurma() + ".json"), serializar(alunosDTO, gson));
+
+        // Arquivos de notas
+        for (Disciplina disciplina : turma.getDisciplinas()) {
+            for (int trimestre = 1; trimestre <= NotaSlot.TOTAL_TRIMESTRES; trimestre++) {
+                String nomeArquivo = "notas_" + turma.getCodigoTurma() + "_" + disciplina.getCodigoDisciplina() + "_T" + trimestre + ".json";
+                conteudos.put(Paths.get(dataDir, "notas_json", nomeArquivo), serializar(notasDaDisciplina(turma, disciplina, trimestre), gson));
+            }
+        }
+
+        for (Map.Entry<Path, byte[]> item : conteudos.entrySet()) {
+            if (conteudoIgual(item.getKey(), item.getValue())) {
+                inalterados.incrementAndGet();
+                continue;
+            }
+            try {
+                preparados.put(item.getKey(), PersistenciaAssincrona.prepararGravacao(item.getKey(), item.getValue()));
+            } catch (IOException e) {
+                System.err.println("Erro ao salvar arquivo JSON: " + e.getMessage());
+                falhas.add(item.getKey() + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Faz um único backup de todos os arquivos que vão mudar e substitui cada um pelo seu temporário.
+     * @return Quantos arquivos foram substituídos.
+     */
+    private static int substituirArquivos(String dataDir, Map<Path, Path> preparados, List<String> falhas) {
+        if (preparados.isEmpty()) {
+            return 0;
+        }
+        List<Path> alterados = new ArrayList<>(preparados.keySet());
+        Collections.sort(alterados);
+        BackupNotas.snapshotAntesDe(dataDir, alterados, "antes da restauração do banco de dados");
+
+        int gravados = 0;
+        for (Path arquivo : alterados) {
+            Path temporario = preparados.get(arquivo);
+            try {
+                PersistenciaAssincrona.concluirGravacao(temporario, arquivo);
+                gravados++;
+                System.out.println(" -> Arquivo salvo: " + arquivo);
+            } catch (IOException e) {
+                System.err.println("Erro ao salvar arquivo JSON: " + e.getMessage());
+                falhas.add(arquivo + ": " + e.getMessage());
+                apagar(temporario);
+            }
+        }
+        return gravados;
+    }
+
+    private static void descartarPreparados(Map<Path, Path> preparados) {
+        for (Path temporario : preparados.values()) {
+            apagar(temporario);
+        }
+    }
+
+    private static void apagar(Path temporario) {
+        try {
+            Files.deleteIfExists(temporario);
         } catch (IOException e) {
-            System.err.println("Erro ao salvar arquivo JSON: " + e.getMessage());
+            System.err.println("AVISO: Não foi possível apagar o arquivo temporário " + temporario + ": " + e.getMessage());
         }
     }
 
-    // Método copiado e adaptado de GerenciadorDeDados para salvar os DTOs de notas
-    private static void salvarNotasPorTurmaDisciplinaTrimestre(Turma turma, Disciplina disciplina, int trimestre, String notasDir, Gson gson) {
+    private static byte[] serializar(Object dados, Gson gson) {
+        return gson.toJson(dados).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static boolean conteudoIgual(Path arquivo, byte[] conteudo) {
+        try {
+            // Tamanho diferente já basta para saber que mudou, sem ler o arquivo.
+            return Files.size(arquivo) == conteudo.length && Arrays.equals(Files.readAllBytes(arquivo), conteudo);
+        } catch (IOException e) {
+            return false; // Arquivo inexistente ou ilegível: grava
+        }
+    }
+
+    // Método copiado e adaptado de GerenciadorDeDados para montar os DTOs de notas
+    private static List<NotaDTO> notasDaDisciplina(Turma turma, Disciplina disciplina, int trimestre) {
         List<NotaDTO> notasDTOList = new ArrayList<>();
         for (Aluno aluno : turma.getAlunos()) {
             NotaDTO dto = new NotaDTO();
             dto.setNome(aluno.getNome());
             dto.setRa(aluno.getRa());
 
-            Map<String, Double> notasDoTrimestre = aluno.getNotas().stream()
-                .filter(n -> n.getDisciplina().equals(disciplina.getNomeDisciplina()) && n.getDescricao().startsWith("T" + trimestre))
-                .collect(Collectors.toMap(n -> n.getDescricao(), n -> n.getValor(), (v1, v2) -> v1));
-
-            dto.setNm1(String.valueOf(notasDoTrimestre.getOrDefault("T" + trimestre + " - N1", 0.0)));
-            dto.setNm2(String.valueOf(notasDoTrimestre.getOrDefault("T" + trimestre + " - N2", 0.0)));
-            dto.setNm3(String.valueOf(notasDoTrimestre.getOrDefault("T" + trimestre + " - N3", 0.0)));
-            dto.setRecuperacao(String.valueOf(notasDoTrimestre.getOrDefault("T" + trimestre + " - REC", 0.0)));
+            String nomeDisciplina = disciplina.getNomeDisciplina();
+            dto.setNm1(String.valueOf(aluno.getNota(nomeDisciplina, NotaSlot.of(trimestre, NotaSlot.Tipo.N1))));
+            dto.setNm2(String.valueOf(aluno.getNota(nomeDisciplina, NotaSlot.of(trimestre, NotaSlot.Tipo.N2))));
+            dto.setNm3(String.valueOf(aluno.getNota(nomeDisciplina, NotaSlot.of(trimestre, NotaSlot.Tipo.N3))));
+            dto.setRecuperacao(String.valueOf(aluno.getNota(nomeDisciplina, NotaSlot.of(trimestre, NotaSlot.Tipo.REC))));
             dto.setTotalFaltas("");
 
             notasDTOList.add(dto);
         }
-
-        String nomeArquivo = "notas_" + turma.getCodigoTurma() + "_" + disciplina.getCodigoDisciplina() + "_T" + trimestre + ".json";
-        String caminhoArquivo = notasDir + File.separator + nomeArquivo;
-        salvarJson(notasDTOList, caminhoArquivo, gson);
+        return notasDTOList;
     }
-}
\ No newline at end of file
+}
@@ -1,13 +1,9 @@
 package tools;
 
-import model.Aluno;
-import model.Disciplina;
-import model.Nota;
 import model.Turma; // Garante que a classe Turma correta seja importada
 import dao.ConexaoBD;
-import dao.AlunoDAO;
-import dao.TurmaDAO;
-import dao.DisciplinaDAO;
+import dao.ProgressoDoLote;
+import dao.SincronizacaoDAO;
 import service.GerenciadorDeDados;
 // import GerenciadorDeDados; // REMOVIDO: GerenciadorDeDados está no pacote padrão, não precisa de import
 import java.sql.Connection;
@@ -18,12 +14,33 @@ import java.util.List;
 /**
  * Classe principal para a ferramenta de sincronização.
  * Lê todos os dados dos arquivos JSON e os persiste no banco de dados H2.
+ * A sincronização é incremental: só as turmas, disciplinas, alunos e notas que mudaram são gravados.
+ * <p>
+ * Uso: {@code SincronizadorBD [--lote <linhas>]}, onde {@code --lote} é quantas linhas vão ao banco por
+ * {@code executeBatch} (padrão 1000). O andamento de cada lote é mostrado com a sua vazão.
  */
 public class SincronizadorBD {
 
+    private static final int TAMANHO_DO_LOTE_PADRAO = 1000;
+
     public static void main(String[] args) {
         System.out.println("--- INICIANDO SINCRONIZAÇÃO PARA O BANCO DE DADOS ---");
 
+        int tamanhoDoLote = TAMANHO_DO_LOTE_PADRAO;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--lote") && i + 1 < args.length) {
+                try {
+                    tamanhoDoLote = Integer.parseInt(args[++i]);
+                } catch (NumberFormatException e) {
+                    tamanhoDoLote = 0;
+                }
+                if (tamanhoDoLote < 1) {
+                    System.err.println("AVISO: Tamanho de lote inválido '" + args[i] + "'. Usando " + TAMANHO_DO_LOTE_PADRAO + ".");
+                    tamanhoDoLote = TAMANHO_DO_LOTE_PADRAO;
+                }
+            }
+        }
+
         // 1. Garante que as tabelas do banco de dados existam.
         ConexaoBD.criarTabelasSeNaoExistirem();
 
@@ -39,47 +56,26 @@ public class SincronizadorBD {
             // Desativa o auto-commit para controlar a transação manualmente
             conn.setAutoCommit(false);
 
-            // 4. Instancia os DAOs, passando a mesma conexão para todos
-            TurmaDAO turmaDAO = new TurmaDAO(conn);
-            DisciplinaDAO disciplinaDAO = new DisciplinaDAO(conn);
-            AlunoDAO alunoDAO = new AlunoDAO(conn);
-
-            // 5. Limpa os dados antigos
-            System.out.println("\nLimpando dados antigos do banco de dados...");
-            turmaDAO.limparTabelas();
-            System.out.println("Dados antigos removidos.");
-
-            // 6. Itera sobre as turmas e salva tudo em lote
-            System.out.println("\nSincronizando novos dados...");
-            int totalAlunos = 0;
-            int totalNotas = 0;
-            for (Turma turma : turmas) {
-                turmaDAO.inserir(turma); // O ID será definido no objeto turma
-                if (turma.getId() != 0) { // Garante que a turma foi inserida
-                    disciplinaDAO.inserirEmLote(turma.getDisciplinas(), turma.getId());
-                    alunoDAO.adicionarAlunosParaLote(turma.getAlunos(), turma.getId());
-                    totalAlunos += turma.getAlunos().size();
-                }
-            }
-
-            // 7. Executa todos os lotes e commita a transação
-            System.out.println("Finalizando inserções no banco de dados...");
-            disciplinaDAO.executarLote();
-            // Executa o lote de alunos e depois usa os IDs retornados para as notas
-            alunoDAO.executarLoteDeAlunos();
-            totalNotas = alunoDAO.adicionarNotasParaLote(turmas);
-            alunoDAO.executarLoteDeNotas();
-            alunoDAO.fecharStatements();
-            
+            // 4. Compara o modelo com o banco e aplica só as diferenças (MERGE/DELETE em lote)
+            System.out.println("\nComparando os dados com o banco de dados...");
+            ProgressoDoLote progresso = (tabela, linhasNoLote, totalDeLinhas, linhasPorSegundo) ->
+                    System.out.printf(" -> %s: %d linha(s) gravada(s) (lote de %d, %.0f linhas/s)%n", tabela, totalDeLinhas, linhasNoLote, linhasPorSegundo);
+            SincronizacaoDAO.Resultado resultado = new SincronizacaoDAO(conn, tamanhoDoLote, progresso).sincronizar(turmas);
             conn.commit();
 
-            System.out.println(turmas.size() + " turmas, " + totalAlunos + " alunos e " + totalNotas + " notas foram sincronizados.");
+            if (resultado.semAlteracoes()) {
+                System.out.println("O banco de dados já estava atualizado. Nenhuma alteração foi necessária.");
+            } else {
+                System.out.println("Turmas: " + resultado.getTurmas());
+                System.out.println("Disciplinas: " + resultado.getDisciplinas());
+                System.out.println("Alunos: " + resultado.getAlunos());
+                System.out.println("Notas: " + resultado.getNotas());
+            }
 
         } catch (SQLException e) {
             System.err.println("ERRO CRÍTICO durante a sincronização com o banco de dados: " + e.getMessage());
             e.printStackTrace();
-            // Em um cenário real, aqui ocorreria um rollback da transação.
-            // O try-with-resources já fecha a conexão, descartando a transação.
+            // O try-with-resources devolve a conexão ao pool, que desfaz a transação não confirmada.
         }
 
         System.out.println("\n--- SINCRONIZAÇÃO CONCLUÍDA ---");